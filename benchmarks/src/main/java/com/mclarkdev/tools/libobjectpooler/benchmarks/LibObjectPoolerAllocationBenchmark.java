@@ -0,0 +1,63 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerController;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerException;
+
+/**
+ * LibObjectPooler // LibObjectPoolerAllocationBenchmark
+ * 
+ * The steady state borrow and release cycle, in the pool configurations which
+ * must not allocate; run with -prof gc, or through
+ * LibObjectPoolerAllocationCheck to fail on any allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibObjectPoolerAllocationBenchmark {
+
+	@Param({ "fixed", "affinity" })
+	public String store;
+
+	private LibObjectPooler<Object> pool;
+
+	@Setup(Level.Trial)
+	public void setup() throws LibObjectPoolerException {
+
+		pool = LibObjectPoolerBenchmarks.newPool(store, 16);
+		pool.prefill(16);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Object getRelease() throws LibObjectPoolerException {
+
+		Object object = pool.get();
+		pool.release(object);
+		return object;
+	}
+}
@@ -0,0 +1,79 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * LibObjectPooler // LibObjectPoolerAllocationCheck
+ * 
+ * Runs LibObjectPoolerAllocationBenchmark with the GC profiler and exits with
+ * a failure if any configuration allocates on the borrow and release path.
+ */
+public final class LibObjectPoolerAllocationCheck {
+
+	// JMH reports a fraction of a byte from its own bookkeeping
+	private static final double maxBytesPerOp = 0.5;
+
+	private LibObjectPoolerAllocationCheck() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+
+		Options options = new OptionsBuilder()//
+				.include(LibObjectPoolerAllocationBenchmark.class.getSimpleName())//
+				.addProfiler(GCProfiler.class)//
+				.build();
+
+		boolean failed = false;
+		Collection<RunResult> results = new Runner(options).run();
+		for (RunResult result : results) {
+
+			String name = result.getParams().getBenchmark() + " " + result.getParams().getParam("store");
+
+			double bytes = allocated(result);
+			if (Double.isNaN(bytes)) {
+
+				System.err.println(name + ": no allocation rate reported");
+				failed = true;
+			} else if (bytes > maxBytesPerOp) {
+
+				System.err.println(name + ": allocates " + bytes + " B/op");
+				failed = true;
+			} else {
+
+				System.out.println(name + ": " + bytes + " B/op");
+			}
+		}
+
+		System.exit(failed ? 1 : 0);
+	}
+
+	/**
+	 * Returns the normalized allocation rate reported by the GC profiler.
+	 * 
+	 * @param result the run result
+	 * @return bytes per operation, or NaN if not reported
+	 */
+	private static double allocated(RunResult result) {
+
+		// JMH declares the map with the raw Result type; read values as Result<?>
+		for (String name : result.getSecondaryResults().keySet()) {
+
+			// named "gc.alloc.rate.norm", with a leading dot on older JMH versions
+			if (name.endsWith("gc.alloc.rate.norm")) {
+
+				Result<?> secondary = result.getSecondaryResults().get(name);
+				return secondary.getScore();
+			}
+		}
+
+		return Double.NaN;
+	}
+}
@@ -0,0 +1,104 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerController;
+
+/**
+ * LibObjectPooler // LibObjectPoolerBenchmarks
+ * 
+ * Pool setup shared by the benchmarks.
+ */
+final class LibObjectPoolerBenchmarks {
+
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((r) -> {
+
+		Thread thread = new Thread(r, "LibObjectPoolerBenchmarks");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private LibObjectPoolerBenchmarks() {
+	}
+
+	/**
+	 * Build a pool of plain objects.
+	 * 
+	 * @param store       "deque", "affinity" (deque with thread affinity) or
+	 *                    "fixed"
+	 * @param maxPoolSize the max pool size
+	 * @return the pool
+	 */
+	static LibObjectPooler<Object> newPool(String store, int maxPoolSize) {
+
+		return newPool(store, maxPoolSize, newController(0));
+	}
+
+	/**
+	 * Build a controller of plain objects.
+	 * 
+	 * @param createMicros the time each create takes (us)
+	 * @return the controller
+	 */
+	static LibObjectPoolerController<Object> newController(long createMicros) {
+
+		return new LibObjectPoolerController<Object>() {
+
+			@Override
+			public Object onCreate() {
+
+				// stands in for opening a connection
+				if (createMicros > 0) {
+					LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(createMicros));
+				}
+
+				return new Object();
+			}
+
+			@Override
+			public void onDestroy(Object object) {
+			}
+		};
+	}
+
+	/**
+	 * Build a pool with the given controller.
+	 * 
+	 * @param store       "deque", "affinity" (deque with thread affinity) or
+	 *                    "fixed"
+	 * @param maxPoolSize the max pool size
+	 * @param controller  the controller
+	 * @param <T>         the object type to pool
+	 * @return the pool
+	 */
+	static <T> LibObjectPooler<T> newPool(String store, int maxPoolSize, LibObjectPoolerController<T> controller) {
+
+		return newPool(store, maxPoolSize, controller, scheduler);
+	}
+
+	/**
+	 * Build a pool with the given controller and maintenance scheduler.
+	 * 
+	 * @param store       "deque", "affinity" (deque with thread affinity) or
+	 *                    "fixed"
+	 * @param maxPoolSize the max pool size
+	 * @param controller  the controller
+	 * @param scheduler   the maintenance scheduler
+	 * @param <T>         the object type to pool
+	 * @return the pool
+	 */
+	static <T> LibObjectPooler<T> newPool(String store, int maxPoolSize, LibObjectPoolerController<T> controller,
+			ScheduledExecutorService scheduler) {
+
+		boolean fixed = "fixed".equals(store);
+
+		LibObjectPooler<T> pool = new LibObjectPooler<T>(maxPoolSize, controller, scheduler, fixed);
+
+		pool.setThreadAffinity("affinity".equals(store));
+		return pool;
+	}
+}
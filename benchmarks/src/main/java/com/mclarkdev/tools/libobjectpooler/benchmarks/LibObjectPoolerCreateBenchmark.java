@@ -0,0 +1,63 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerException;
+
+/**
+ * LibObjectPooler // LibObjectPoolerCreateBenchmark
+ * 
+ * Borrowing from an empty pool, so every borrow creates an object, with a
+ * controller that takes a while to create one; the object is destroyed again
+ * straight away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LibObjectPoolerCreateBenchmark {
+
+	@Param({ "0", "100", "1000" })
+	public long createMicros;
+
+	private LibObjectPooler<Object> pool;
+
+	@Setup(Level.Trial)
+	public void setup() {
+
+		pool = LibObjectPoolerBenchmarks.newPool("deque", 64, LibObjectPoolerBenchmarks.newController(createMicros));
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Object createDestroy() throws LibObjectPoolerException {
+
+		Object object = pool.get();
+		pool.destroy(object, true);
+		return object;
+	}
+}
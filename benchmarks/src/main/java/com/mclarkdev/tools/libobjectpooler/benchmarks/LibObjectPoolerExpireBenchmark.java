@@ -0,0 +1,98 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerException;
+
+/**
+ * LibObjectPooler // LibObjectPoolerExpireBenchmark
+ * 
+ * One expire check over a pool of 10 to 100k idle objects, either all due
+ * (every object is destroyed) or none due. The pool's own maintenance thread
+ * is held up so the benchmark thread is the only one evicting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LibObjectPoolerExpireBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	@Param({ "true", "false" })
+	public boolean due;
+
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	private ScheduledExecutorService scheduler;
+
+	private LibObjectPooler<Object> pool;
+
+	@Setup(Level.Trial)
+	public void setup() {
+
+		// park the maintenance thread until the trial is over
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		scheduler.execute(() -> {
+
+			try {
+
+				stopped.await();
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		pool = LibObjectPoolerBenchmarks.newPool("deque", size, LibObjectPoolerBenchmarks.newController(0), scheduler);
+		pool.setDestroyExecutor(Runnable::run);
+		pool.setMaxIdleTime(due ? 1 : TimeUnit.HOURS.toMillis(1));
+	}
+
+	@Setup(Level.Iteration)
+	public void fill() throws LibObjectPoolerException {
+
+		pool.prefill(size);
+
+		// let every object go past its idle time
+		LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		pool.shutdown();
+
+		stopped.countDown();
+		scheduler.shutdownNow();
+	}
+
+	@Benchmark
+	public int destroyExpiredObjects() {
+
+		pool.destroyExpiredObjects();
+		return pool.getPoolSize();
+	}
+}
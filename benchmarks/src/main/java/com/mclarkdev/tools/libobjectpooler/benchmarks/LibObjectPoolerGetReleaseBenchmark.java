@@ -0,0 +1,65 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerException;
+
+/**
+ * LibObjectPooler // LibObjectPoolerGetReleaseBenchmark
+ * 
+ * Borrow and release throughput with a pool large enough for every thread;
+ * run with -t, or through LibObjectPoolerScaling for 1 to 128 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibObjectPoolerGetReleaseBenchmark {
+
+	@Param({ "deque", "affinity", "fixed" })
+	public String store;
+
+	// covers 128 threads, plus some idle objects
+	@Param({ "160" })
+	public int size;
+
+	private LibObjectPooler<Object> pool;
+
+	@Setup(Level.Trial)
+	public void setup() throws LibObjectPoolerException {
+
+		pool = LibObjectPoolerBenchmarks.newPool(store, size);
+		pool.prefill(size);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Object getRelease() throws LibObjectPoolerException {
+
+		Object object = pool.get();
+		pool.release(object);
+		return object;
+	}
+}
@@ -0,0 +1,77 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mclarkdev.tools.libobjectpooler.LibObjectPooler;
+import com.mclarkdev.tools.libobjectpooler.LibObjectPoolerException;
+
+/**
+ * LibObjectPooler // LibObjectPoolerGetWaitBenchmark
+ * 
+ * Sixteen threads sharing an exhausted pool; each holds its object for a
+ * while, so most borrows queue and are handed an object on release.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class LibObjectPoolerGetWaitBenchmark {
+
+	@Param({ "deque", "fixed" })
+	public String store;
+
+	@Param({ "1", "4" })
+	public int size;
+
+	// work done while holding the object
+	@Param({ "1000" })
+	public long holdTokens;
+
+	private LibObjectPooler<Object> pool;
+
+	@Setup(Level.Trial)
+	public void setup() throws LibObjectPoolerException {
+
+		pool = LibObjectPoolerBenchmarks.newPool(store, size);
+		pool.prefill(size);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Object getWaitRelease() throws LibObjectPoolerException {
+
+		Object object = pool.getWait(1, TimeUnit.SECONDS);
+		try {
+
+			Blackhole.consumeCPU(holdTokens);
+			return object;
+		} finally {
+
+			pool.release(object);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.mclarkdev.tools.libobjectpooler.benchmarks;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * LibObjectPooler // LibObjectPoolerScaling
+ * 
+ * Runs LibObjectPoolerGetReleaseBenchmark at 1 to 128 threads, with the GC
+ * profiler, and writes every result to a single JSON file.
+ */
+public final class LibObjectPoolerScaling {
+
+	private static final int[] threads = { 1, 2, 4, 8, 16, 32, 64, 128 };
+
+	private LibObjectPoolerScaling() {
+	}
+
+	public static void main(String[] args) throws RunnerException, FileNotFoundException {
+
+		String file = (args.length > 0) ? args[0] : "target/jmh-scaling.json";
+
+		Collection<RunResult> results = new ArrayList<RunResult>();
+		for (int count : threads) {
+
+			Options options = new OptionsBuilder()//
+					.include(LibObjectPoolerGetReleaseBenchmark.class.getSimpleName())//
+					.addProfiler(GCProfiler.class)//
+					.threads(count)//
+					.build();
+
+			results.addAll(new Runner(options).run());
+		}
+
+		// same format as -rf json, the thread count is in each result
+		try (PrintStream out = new PrintStream(file)) {
+
+			ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+		}
+
+		System.out.println("results written to " + file);
+	}
+}
@@ -0,0 +1,592 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LibObjectPooler // LibKeyedObjectPooler
+ * 
+ * A pool of objects per key, such as connections per remote host. Each key
+ * has its own pool, limited by the max per key, and all keys together are
+ * limited by the max total. All keys share one maintenance scheduler.
+ * 
+ * A key's pool is created on first use and removed again once it holds no
+ * objects, so memory follows the keys in use rather than every key seen.
+ * 
+ * Once the max total is reached, a borrower of another key takes the room of
+ * an idle object, or of the next object released.
+ * 
+ * @param <K> the key type
+ * @param <T> the object type to pool
+ */
+public class LibKeyedObjectPooler<K, T> {
+
+	private final LibKeyedObjectPoolerController<K, T> controller;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final ConcurrentHashMap<K, LibKeyedObjectPoolerSubPool<T>> pools;
+
+	private final LibObjectPoolerCapacity capacity;
+
+	private ScheduledFuture<?> reclaimTask;
+
+	private long reclaimInterval = 15 * 1000;
+
+	private volatile boolean allowCreateNew = true;
+
+	private volatile int maxPerKey;
+
+	private volatile long maxAge = 0;
+
+	private volatile long timeoutIdle = 0;
+
+	private volatile boolean testOnBorrow = false;
+	private volatile boolean testOnReturn = false;
+	private volatile boolean testWhileIdle = false;
+	private volatile long validationInterval = 0;
+
+	private volatile boolean recordLatencies = true;
+
+	private volatile LibObjectPoolerMetrics metrics = LibObjectPoolerMetrics.none;
+
+	/**
+	 * Construct a new keyed object pool.
+	 * 
+	 * @param maxPerKey  The maximum number of objects per key.
+	 * @param maxTotal   The maximum number of objects across all keys.
+	 * @param controller The controller to use for managing the lifecycle of the
+	 *                   pooled objects.
+	 */
+	public LibKeyedObjectPooler(int maxPerKey, int maxTotal, LibKeyedObjectPoolerController<K, T> controller) {
+
+		this(maxPerKey, maxTotal, controller, LibObjectPoolerScheduler.shared());
+	}
+
+	/**
+	 * Construct a new keyed object pool with its own maintenance scheduler.
+	 * 
+	 * @param maxPerKey  The maximum number of objects per key.
+	 * @param maxTotal   The maximum number of objects across all keys.
+	 * @param controller The controller to use for managing the lifecycle of the
+	 *                   pooled objects.
+	 * @param scheduler  The scheduler to run maintenance and timeouts of every
+	 *                   key on.
+	 */
+	public LibKeyedObjectPooler(int maxPerKey, int maxTotal, LibKeyedObjectPoolerController<K, T> controller,
+			ScheduledExecutorService scheduler) {
+
+		this.controller = controller;
+		this.scheduler = scheduler;
+		this.maxPerKey = maxPerKey;
+
+		pools = new ConcurrentHashMap<K, LibKeyedObjectPoolerSubPool<T>>();
+		capacity = new LibObjectPoolerCapacity(maxTotal, this::signalWaiters);
+
+		rescheduleReclaim();
+	}
+
+	/**
+	 * Lock and get an object for a key.
+	 * 
+	 * @param key the key
+	 * @return An instance of the object from the pool of the key.
+	 * @throws LibObjectPoolerException the key or the pool is at max capacity
+	 */
+	public T get(K key) throws LibObjectPoolerException {
+
+		LibKeyedObjectPoolerSubPool<T> sub = enter(key);
+		try {
+
+			try {
+
+				return sub.pool.get();
+			} catch (LibObjectPoolerException e) {
+
+				// room may be held by idle objects of other keys
+				if (!capacity.isFull() || !reclaim(sub)) {
+					throw e;
+				}
+
+				return sub.pool.get();
+			}
+		} finally {
+
+			sub.exit();
+		}
+	}
+
+	/**
+	 * Lock an object for a key and get a handle on it.
+	 * 
+	 * @param key the key
+	 * @return A handle on an instance of the object from the pool of the key.
+	 * @throws LibObjectPoolerException the key or the pool is at max capacity
+	 */
+	public LibObjectPoolerRef<T> borrow(K key) throws LibObjectPoolerException {
+
+		LibKeyedObjectPoolerSubPool<T> sub = enter(key);
+		try {
+
+			try {
+
+				return sub.pool.borrow();
+			} catch (LibObjectPoolerException e) {
+
+				// room may be held by idle objects of other keys
+				if (!capacity.isFull() || !reclaim(sub)) {
+					throw e;
+				}
+
+				return sub.pool.borrow();
+			}
+		} finally {
+
+			sub.exit();
+		}
+	}
+
+	/**
+	 * Waits for an instance of a pooled object for a key.
+	 * 
+	 * @param key     the key
+	 * @param timeout the time to wait
+	 * @param unit    the unit of the timeout
+	 * @return an instance of the pooled object
+	 * @throws LibObjectPoolerException failed to get object before timeout
+	 */
+	public T getWait(K key, long timeout, TimeUnit unit) throws LibObjectPoolerException {
+
+		LibKeyedObjectPoolerSubPool<T> sub = enter(key);
+
+		// other keys hold all the room this key could use
+		boolean starved = capacity.isFull() && sub.pool.getPoolSize() < sub.pool.getMaxPoolSize();
+		if (starved) {
+			capacity.startWaiting();
+		}
+
+		try {
+
+			// make room from idle objects, or from the next released one
+			if (starved) {
+				reclaim(sub);
+			}
+
+			return sub.pool.getWait(timeout, unit);
+		} finally {
+
+			if (starved) {
+				capacity.stopWaiting();
+			}
+
+			sub.exit();
+		}
+	}
+
+	/**
+	 * Release a locked object.
+	 * 
+	 * @param key the key the object was borrowed for
+	 * @param t   The locked object.
+	 * @return Returns true if the object was successfully returned to the pool.
+	 */
+	public boolean release(K key, T t) {
+
+		// a pool holding a borrowed object is never removed
+		LibKeyedObjectPoolerSubPool<T> sub = pools.get(key);
+		return (sub != null) && sub.pool.release(t);
+	}
+
+	/**
+	 * Destroy a pooled object, optionally with force.
+	 * 
+	 * @param key   the key the object was borrowed for
+	 * @param t     The object.
+	 * @param force destroy the object even if it is locked
+	 * @return Returns true if the object was destroyed from the pool.
+	 */
+	public boolean destroy(K key, T t, boolean force) {
+
+		LibKeyedObjectPoolerSubPool<T> sub = pools.get(key);
+		return (sub != null) && sub.pool.destroy(t, force);
+	}
+
+	/**
+	 * Get the number of objects across all keys.
+	 * 
+	 * @return The number of objects in all pools.
+	 */
+	public int getPoolSize() {
+
+		return capacity.getCount();
+	}
+
+	/**
+	 * Get the number of objects of a key.
+	 * 
+	 * @param key the key
+	 * @return The number of objects in the pool of the key.
+	 */
+	public int getPoolSize(K key) {
+
+		LibKeyedObjectPoolerSubPool<T> sub = pools.get(key);
+		return (sub != null) ? sub.pool.getPoolSize() : 0;
+	}
+
+	/**
+	 * Get the number of keys currently holding a pool.
+	 * 
+	 * @return The number of keys.
+	 */
+	public int getNumKeys() {
+
+		return pools.size();
+	}
+
+	/**
+	 * Get the max number of objects per key.
+	 * 
+	 * @return The max number of objects per key.
+	 */
+	public int getMaxPerKey() {
+
+		return maxPerKey;
+	}
+
+	/**
+	 * Set the max number of objects per key.
+	 * 
+	 * @param maxPerKey The max number of objects per key.
+	 */
+	public void setMaxPerKey(int maxPerKey) {
+
+		this.maxPerKey = maxPerKey;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setMaxPoolSize(maxPerKey);
+		}
+	}
+
+	/**
+	 * Get the max number of objects across all keys.
+	 * 
+	 * @return The max number of objects across all keys.
+	 */
+	public int getMaxTotal() {
+
+		return capacity.getLimit();
+	}
+
+	/**
+	 * Set the max number of objects across all keys.
+	 * 
+	 * @param maxTotal The max number of objects across all keys.
+	 */
+	public void setMaxTotal(int maxTotal) {
+
+		capacity.setLimit(maxTotal);
+	}
+
+	/**
+	 * Set the maximum allowed age of an object, for every key.
+	 * 
+	 * @param maxAge Expire any objects which are older then the maximum allowable
+	 *               age.
+	 */
+	public void setMaxAge(long maxAge) {
+
+		this.maxAge = maxAge;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setMaxAge(maxAge);
+		}
+	}
+
+	/**
+	 * Set the maximum allowed object idle time, for every key.
+	 * 
+	 * @param timeoutIdle Expire any objects which have been idle for longer then
+	 *                    the maximum allowed time.
+	 */
+	public void setMaxIdleTime(long timeoutIdle) {
+
+		this.timeoutIdle = timeoutIdle;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setMaxIdleTime(timeoutIdle);
+		}
+	}
+
+	/**
+	 * Validate idle objects before handing them out, for every key.
+	 * 
+	 * @param testOnBorrow test objects on borrow
+	 */
+	public void setTestOnBorrow(boolean testOnBorrow) {
+
+		this.testOnBorrow = testOnBorrow;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setTestOnBorrow(testOnBorrow);
+		}
+	}
+
+	/**
+	 * Validate objects when they are released, for every key.
+	 * 
+	 * @param testOnReturn test objects on return
+	 */
+	public void setTestOnReturn(boolean testOnReturn) {
+
+		this.testOnReturn = testOnReturn;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setTestOnReturn(testOnReturn);
+		}
+	}
+
+	/**
+	 * Validate idle objects from the maintenance task, for every key.
+	 * 
+	 * @param testWhileIdle test objects while idle
+	 */
+	public void setTestWhileIdle(boolean testWhileIdle) {
+
+		this.testWhileIdle = testWhileIdle;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setTestWhileIdle(testWhileIdle);
+		}
+	}
+
+	/**
+	 * Skip validating objects last borrowed within this interval, for every key.
+	 * 
+	 * @param validationInterval the validation interval (ms), 0 to always validate
+	 */
+	public void setValidationInterval(long validationInterval) {
+
+		this.validationInterval = validationInterval;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setValidationInterval(validationInterval);
+		}
+	}
+
+	/**
+	 * Set if borrow wait and hold times are recorded, for every key.
+	 * 
+	 * @param recordLatencies record wait and hold times
+	 */
+	public void setRecordLatencies(boolean recordLatencies) {
+
+		this.recordLatencies = recordLatencies;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setRecordLatencies(recordLatencies);
+		}
+	}
+
+	/**
+	 * Set the metrics every key reports its events to; counts are shared by all
+	 * keys.
+	 * 
+	 * @param metrics the metrics, or LibObjectPoolerMetrics.none
+	 */
+	public void setMetrics(LibObjectPoolerMetrics metrics) {
+
+		this.metrics = (metrics != null) ? metrics : LibObjectPoolerMetrics.none;
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.setMetrics(this.metrics);
+		}
+	}
+
+	/**
+	 * Get the interval between checks for keys without objects.
+	 * 
+	 * @return the interval (ms)
+	 */
+	public long getReclaimInterval() {
+
+		return reclaimInterval;
+	}
+
+	/**
+	 * Set the interval between checks for keys without objects; their pools are
+	 * removed until the key is used again.
+	 * 
+	 * @param reclaimInterval the interval (ms)
+	 */
+	public void setReclaimInterval(long reclaimInterval) {
+
+		this.reclaimInterval = reclaimInterval;
+		rescheduleReclaim();
+	}
+
+	/**
+	 * Shutdown the pooler and destroy all objects of every key.
+	 */
+	public synchronized void shutdown() {
+
+		// disallow new objects and keys; a key added meanwhile shuts itself down
+		allowCreateNew = false;
+
+		// stop the key checks
+		reclaimTask.cancel(false);
+
+		// shut down every key
+		for (Map.Entry<K, LibKeyedObjectPoolerSubPool<T>> entry : pools.entrySet()) {
+
+			pools.remove(entry.getKey(), entry.getValue());
+			entry.getValue().pool.shutdown();
+		}
+	}
+
+	/**
+	 * Remove the pools of keys which no longer hold any objects.
+	 */
+	public void reclaimKeys() {
+
+		for (Map.Entry<K, LibKeyedObjectPoolerSubPool<T>> entry : pools.entrySet()) {
+
+			LibKeyedObjectPoolerSubPool<T> sub = entry.getValue();
+			if (!sub.retire()) {
+				continue;
+			}
+
+			pools.remove(entry.getKey(), sub);
+			try {
+
+				sub.pool.shutdown();
+			} catch (RuntimeException e) {
+
+				// a failing controller must not stop future reclaims
+			}
+		}
+	}
+
+	/**
+	 * Get the pool of a key, creating it if needed, and start using it.
+	 * 
+	 * @param key the key
+	 * @return the pool of the key
+	 * @throws LibObjectPoolerException the pool was shut down
+	 */
+	private LibKeyedObjectPoolerSubPool<T> enter(K key) throws LibObjectPoolerException {
+
+		while (true) {
+
+			if (!allowCreateNew) {
+				throw new LibObjectPoolerException("pool is not allowing new objects");
+			}
+
+			// null once shut down
+			LibKeyedObjectPoolerSubPool<T> sub = pools.computeIfAbsent(key, this::newSubPool);
+			if (sub == null) {
+				throw new LibObjectPoolerException("pool is not allowing new objects");
+			}
+
+			// shut down while it was added, the shutdown may have missed it
+			if (!allowCreateNew) {
+
+				if (pools.remove(key, sub)) {
+					sub.pool.shutdown();
+				}
+				throw new LibObjectPoolerException("pool is not allowing new objects");
+			}
+
+			if (sub.enter()) {
+				return sub;
+			}
+
+			// being removed, look again once it is gone
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Create the pool of a key.
+	 * 
+	 * @param key the key
+	 * @return the pool of the key, or null if shut down
+	 */
+	private LibKeyedObjectPoolerSubPool<T> newSubPool(K key) {
+
+		if (!allowCreateNew) {
+			return null;
+		}
+
+		LibObjectPooler<T> pool = new LibObjectPooler<T>(maxPerKey, new LibObjectPoolerController<T>() {
+
+			@Override
+			public T onCreate() {
+
+				return controller.onCreate(key);
+			}
+
+			@Override
+			public void onDestroy(T t) {
+
+				controller.onDestroy(key, t);
+			}
+
+			@Override
+			public boolean onValidate(T t) {
+
+				return controller.onValidate(key, t);
+			}
+		}, scheduler);
+
+		pool.setCapacity(capacity);
+		pool.setMaxAge(maxAge);
+		pool.setMaxIdleTime(timeoutIdle);
+		pool.setTestOnBorrow(testOnBorrow);
+		pool.setTestOnReturn(testOnReturn);
+		pool.setTestWhileIdle(testWhileIdle);
+		pool.setValidationInterval(validationInterval);
+		pool.setRecordLatencies(recordLatencies);
+		pool.setMetrics(metrics);
+
+		return new LibKeyedObjectPoolerSubPool<T>(pool);
+	}
+
+	/**
+	 * Destroy an idle object of another key to make room.
+	 * 
+	 * @param except the pool in need of room
+	 * @return false if no other key had an idle object
+	 */
+	private boolean reclaim(LibKeyedObjectPoolerSubPool<T> except) {
+
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+
+			if (sub != except && sub.pool.evictIdle()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Let waiters of every key use freed capacity.
+	 */
+	private void signalWaiters() {
+
+		for (LibKeyedObjectPoolerSubPool<T> sub : pools.values()) {
+			sub.pool.signalWaiters();
+		}
+	}
+
+	/**
+	 * Restart the key checks with the current interval.
+	 */
+	private synchronized void rescheduleReclaim() {
+
+		if (reclaimTask != null) {
+			reclaimTask.cancel(false);
+		}
+
+		if (!allowCreateNew) {
+			return;
+		}
+
+		reclaimTask = scheduler.scheduleWithFixedDelay(this::reclaimKeys, //
+				reclaimInterval, reclaimInterval, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,39 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibKeyedObjectPoolerController
+ * 
+ * @param <K> the key type
+ * @param <T> the object type to pool
+ */
+public interface LibKeyedObjectPoolerController<K, T> {
+
+	/**
+	 * Called by the pooler when a new object should be created for a key.
+	 * 
+	 * @param key the key
+	 * @return the created object
+	 */
+	public T onCreate(K key);
+
+	/**
+	 * Called by the pooler when an object should be destroyed.
+	 * 
+	 * @param key the key the object was created for
+	 * @param t   the object to destroy
+	 */
+	public void onDestroy(K key, T t);
+
+	/**
+	 * Called by the pooler to check an object is still usable, when the pool
+	 * tests objects on borrow, on return or while idle.
+	 * 
+	 * @param key the key the object was created for
+	 * @param t   the object to check
+	 * @return false if the object should be destroyed
+	 */
+	public default boolean onValidate(K key, T t) {
+
+		return true;
+	}
+}
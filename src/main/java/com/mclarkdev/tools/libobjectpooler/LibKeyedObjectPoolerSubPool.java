@@ -0,0 +1,87 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibKeyedObjectPoolerSubPool
+ * 
+ * The pool of a single key, counting the callers currently using it so an
+ * empty pool can be removed without racing a borrower.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibKeyedObjectPoolerSubPool<T> {
+
+	final LibObjectPooler<T> pool;
+
+	// callers inside the pool, or -1 while being removed
+	private final AtomicInteger users = new AtomicInteger();
+
+	/**
+	 * Instantiate a new sub pool.
+	 * 
+	 * @param pool the pool of the key
+	 */
+	LibKeyedObjectPoolerSubPool(LibObjectPooler<T> pool) {
+
+		this.pool = pool;
+	}
+
+	/**
+	 * Start using the pool.
+	 * 
+	 * @return false if the pool is being removed
+	 */
+	boolean enter() {
+
+		int count;
+		do {
+
+			count = users.get();
+			if (count < 0) {
+				return false;
+			}
+		} while (!users.compareAndSet(count, count + 1));
+
+		return true;
+	}
+
+	/**
+	 * Stop using the pool.
+	 */
+	void exit() {
+
+		users.decrementAndGet();
+	}
+
+	/**
+	 * Claim the pool for removal if nobody is using it and it holds no objects.
+	 * 
+	 * @return true if the caller should remove the pool
+	 */
+	boolean retire() {
+
+		if (pool.getPoolSize() > 0 || !users.compareAndSet(0, -1)) {
+			return false;
+		}
+
+		// an object may have been created before the claim
+		if (pool.getPoolSize() > 0) {
+
+			users.set(0);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the pool was claimed for removal.
+	 * 
+	 * @return is retired
+	 */
+	boolean isRetired() {
+
+		return users.get() < 0;
+	}
+}
@@ -1,8 +1,24 @@
 package com.mclarkdev.tools.libobjectpooler;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * LibObjectPooler // LibObjectPooler
@@ -15,22 +31,114 @@ public class LibObjectPooler<T> {
 
 	private LibObjectPoolerController<T> controller;
 
-	private Timer expireTimer = new Timer();
+	private final ScheduledExecutorService scheduler;
+
+	private ScheduledFuture<?> expireTask;
+
+	private volatile long expireAt = Long.MAX_VALUE;
+
+	private final LibObjectPoolerExpiry<T> expiry = new LibObjectPoolerExpiry<T>();
 
 	private long expireCheckInterval = 15 * 1000;
 
-	private boolean allowCreateNew = true;
+	private volatile boolean allowCreateNew = true;
+
+	private volatile boolean shutdown = false;
+
+	private volatile int maxPoolSize;
+
+	private volatile int maxConcurrentCreates = 0;
+
+	private volatile int minIdle = 0;
+
+	private static final int warmUpAttempts = 3;
+	private static final int warmUpBusyAttempts = 10;
+
+	private final AtomicBoolean filling = new AtomicBoolean();
+
+	private volatile int evictionBatchSize = 0;
+
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private volatile Executor destroyExecutor = LibObjectPoolerScheduler.workers();
+
+	private volatile long timeoutIdle = 0;
+	private volatile long maxAge = 0;
+	private volatile long maxLockCount = 0;
+	private volatile long maxLockTime = 0;
+
+	private volatile long leakThreshold = 0;
+	private volatile int leakStackSampling = 0;
+	private volatile LibObjectPoolerLeakAction leakAction = LibObjectPoolerLeakAction.REPORT;
+
+	private volatile boolean testOnBorrow = false;
+	private volatile boolean testOnReturn = false;
+	private volatile boolean testWhileIdle = false;
+	private volatile long validationInterval = 0;
+	private volatile long lastIdleTest = 0;
+	private volatile int validationBatchSize = 0;
+	private volatile int validationParallelism = 1;
+	private volatile Executor validationExecutor = LibObjectPoolerScheduler.workers();
+
+	private final AtomicBoolean validating = new AtomicBoolean();
+
+	private Iterator<LibObjectPoolerEntry<T>> validationCursor;
+
+	private final LibObjectPoolerBackoff backoff = new LibObjectPoolerBackoff();
+
+	private final LibObjectPoolerCounter poolCount;
+
+	private final AtomicInteger createCount = new AtomicInteger();
+
+	private LibObjectPoolerCapacity capacity = null;
+
+	private final AtomicLong createSequence = new AtomicLong();
+
+	private final LongAdder lockedCount = new LongAdder();
+
+	// wall clock time at nanoTime zero (ns), so a borrow reads the clock once
+	private volatile long clockOffset = (System.currentTimeMillis() * 1000000L) - System.nanoTime();
+
+	private final LibObjectPoolerHistogram waitTimes = new LibObjectPoolerHistogram();
+
+	private final LibObjectPoolerHistogram holdTimes = new LibObjectPoolerHistogram();
+
+	private final LibObjectPoolerHistogram createTimes = new LibObjectPoolerHistogram();
+
+	private volatile boolean recordLatencies = true;
+
+	private volatile LibObjectPoolerMetrics metrics = LibObjectPoolerMetrics.none;
+
+	private volatile LibObjectPoolerListener<T> listener = LibObjectPoolerListener.none();
+
+	private static final int threadCacheSize = 16;
+
+	private volatile boolean threadAffinity = false;
 
-	private int maxPoolSize;
+	private final AtomicInteger waiters = new AtomicInteger();
 
-	private long timeoutIdle = 0;
-	private long maxAge = 0;
-	private long maxLockCount = 0;
-	private long maxLockTime = 0;
+	private int maxWaiters = 0;
 
-	private int backoffCount = 0;
+	private Executor asyncExecutor = LibObjectPoolerScheduler.workers();
 
-	private ConcurrentHashMap<T, LibObjectPoolerLock> objectPool;
+	private ConcurrentHashMap<LibObjectPoolerKey, LibObjectPoolerEntry<T>> objectPool;
+
+	private final ConcurrentHashMap<LibObjectPoolerKey, LibObjectPoolerEntry<T>> reclaimed = new ConcurrentHashMap<LibObjectPoolerKey, LibObjectPoolerEntry<T>>();
+
+	private final LibObjectPoolerStore<T> store;
+
+	private ConcurrentLinkedQueue<LibObjectPoolerWaiter<T>> waitQueue;
+
+	private ConcurrentSkipListMap<Long, LibObjectPoolerEntry<T>> createOrder;
+
+	private final ThreadLocal<ArrayList<LibObjectPoolerEntry<T>>> threadObjects = new ThreadLocal<ArrayList<LibObjectPoolerEntry<T>>>() {
+
+		@Override
+		protected ArrayList<LibObjectPoolerEntry<T>> initialValue() {
+
+			return new ArrayList<LibObjectPoolerEntry<T>>(threadCacheSize);
+		}
+	};
 
 	/**
 	 * Construct a new generic object pool.
@@ -42,469 +150,2944 @@ public class LibObjectPooler<T> {
 	 */
 	public LibObjectPooler(int maxPoolSize, LibObjectPoolerController<T> controller) {
 
-		this.controller = controller;
-		this.maxPoolSize = maxPoolSize;
-
-		objectPool = new ConcurrentHashMap<T, LibObjectPoolerLock>();
-
-		expireTimer.scheduleAtFixedRate(new TimerTask() {
+		this(maxPoolSize, controller, LibObjectPoolerScheduler.shared());
+	}
 
-			@Override
-			public void run() {
+	/**
+	 * Construct a new generic object pool with its own maintenance scheduler.
+	 * 
+	 * Pools constructed without a scheduler share a small set of daemon threads;
+	 * the scheduler is not shut down with the pool.
+	 * 
+	 * @param maxPoolSize The initial maximum size of the pool; this can be changed
+	 *                    at any time.
+	 * @param controller  The controller to use for managing the lifecycle of the
+	 *                    pooled objects.
+	 * @param scheduler   The scheduler to run expiry checks and timeouts on.
+	 */
+	public LibObjectPooler(int maxPoolSize, LibObjectPoolerController<T> controller,
+			ScheduledExecutorService scheduler) {
 
-				destroyExpiredObjects();
-			}
-		}, expireCheckInterval, expireCheckInterval);
+		this(maxPoolSize, controller, scheduler, false);
 	}
 
 	/**
-	 * Lock and get an object.
+	 * Construct a new generic object pool, optionally of a fixed size.
 	 * 
-	 * @return An instance of the object from the pool.
+	 * A fixed size pool preallocates a slot for each object and tracks idle
+	 * objects in a bitmap, so borrowing and releasing allocate nothing; the max
+	 * pool size can later be lowered, but never raised above the initial size.
+	 * 
+	 * @param maxPoolSize The maximum size of the pool.
+	 * @param controller  The controller to use for managing the lifecycle of the
+	 *                    pooled objects.
+	 * @param scheduler   The scheduler to run expiry checks and timeouts on.
+	 * @param fixedSize   Preallocate slots for maxPoolSize objects.
 	 */
-	public synchronized T get() throws LibObjectPoolerException {
+	public LibObjectPooler(int maxPoolSize, LibObjectPoolerController<T> controller,
+			ScheduledExecutorService scheduler, boolean fixedSize) {
 
-		// loop each existing object
-		for (T t : objectPool.keySet()) {
-
-			// get the object lock
-			LibObjectPoolerLock lock = objectPool.get(t);
+		this(maxPoolSize, controller, scheduler, fixedSize, 1);
+	}
 
-			// if not locked, lock it
-			if (!lock.isLocked() && lock.lock()) {
+	/**
+	 * Construct a new generic object pool, split into stripes.
+	 * 
+	 * Each stripe keeps its own idle objects; threads take from their own stripe
+	 * first and steal from the others when it is empty, so borrowers on many
+	 * cores rarely touch the same free list. The max pool size still applies to
+	 * the pool as a whole.
+	 * 
+	 * @param maxPoolSize The maximum size of the pool.
+	 * @param controller  The controller to use for managing the lifecycle of the
+	 *                    pooled objects.
+	 * @param scheduler   The scheduler to run expiry checks and timeouts on.
+	 * @param fixedSize   Preallocate slots for maxPoolSize objects.
+	 * @param stripes     The number of stripes, 1 for none.
+	 */
+	public LibObjectPooler(int maxPoolSize, LibObjectPoolerController<T> controller,
+			ScheduledExecutorService scheduler, boolean fixedSize, int stripes) {
 
-				// return the locked object
-				return t;
-			}
+		this.controller = controller;
+		this.maxPoolSize = maxPoolSize;
+		this.scheduler = scheduler;
+
+		objectPool = new ConcurrentHashMap<LibObjectPoolerKey, LibObjectPoolerEntry<T>>();
+		poolCount = new LibObjectPoolerCounter(Math.max(1, stripes));
+		if (stripes > 1) {
+			store = new LibObjectPoolerStripedStore<T>(stripes, fixedSize, maxPoolSize);
+		} else {
+			store = fixedSize ? new LibObjectPoolerSlotStore<T>(maxPoolSize) : new LibObjectPoolerDequeStore<T>();
 		}
+		waitQueue = new ConcurrentLinkedQueue<LibObjectPoolerWaiter<T>>();
+		createOrder = new ConcurrentSkipListMap<Long, LibObjectPoolerEntry<T>>();
 
-		try {
-
-			// return a new object
-			T t = create();
-			return t;
+		rescheduleExpire();
+	}
 
-		} catch (LibObjectPoolerBackoffException e) {
+	/**
+	 * Lock and get an object.
+	 * 
+	 * @return An instance of the object from the pool.
+	 * @throws LibObjectPoolerException the pool is at max capacity
+	 */
+	public T get() throws LibObjectPoolerException {
 
-			try {
-				Thread.sleep(e.getBackoffDelay());
-			} catch (InterruptedException ex) {
-			}
-			return get();
-		}
+		return acquireNow().object;
 	}
 
 	/**
-	 * Waits for an instance of a pooled object.
+	 * Lock an object and get a handle on it.
 	 * 
-	 * Uses default timeout (15s)
+	 * Closing the handle releases the object without looking it up in the pool.
 	 * 
-	 * @return an instance of the pooled object
-	 * @throws LibObjectPoolerException failed to get object before timeout
+	 * @return A handle on an instance of the object from the pool.
+	 * @throws LibObjectPoolerException the pool is at max capacity
 	 */
-	public synchronized T getWait() throws LibObjectPoolerException {
+	public LibObjectPoolerRef<T> borrow() throws LibObjectPoolerException {
 
-		return getWait(15 * 1000);
+		return new LibObjectPoolerRef<T>(this, acquireNow());
 	}
 
 	/**
-	 * Waits for an instance of a pooled object.
+	 * Waits for an instance of a pooled object and get a handle on it.
 	 * 
 	 * @param timeout the time to wait
-	 * @return an instance of the pooled object
+	 * @param unit    the unit of the timeout
+	 * @return a handle on an instance of the pooled object
 	 * @throws LibObjectPoolerException failed to get object before timeout
 	 */
-	public synchronized T getWait(long timeout) throws LibObjectPoolerException {
-
-		long timeEnd = (timeout + System.currentTimeMillis());
-
-		// wait for an object until timeout is reached
-		while (timeEnd > System.currentTimeMillis()) {
-
-			try {
-
-				return get();
-			} catch (Exception e) {
-
-				try {
-
-					// release some cycles
-					Thread.sleep(1);
-				} catch (Exception ex) {
-				}
-			}
-		}
+	public LibObjectPoolerRef<T> borrow(long timeout, TimeUnit unit) throws LibObjectPoolerException {
 
-		throw new LibObjectPoolerException("failed to get object before timeout");
+		return new LibObjectPoolerRef<T>(this, acquireWait(timeout, unit));
 	}
 
 	/**
-	 * Get the current size of the pool.
+	 * Waits for an instance of a pooled object.
 	 * 
-	 * @return The number of objects currently in the pool.
+	 * Uses default timeout (15s)
+	 * 
+	 * @return an instance of the pooled object
+	 * @throws LibObjectPoolerException failed to get object before timeout
 	 */
-	public int getPoolSize() {
+	public T getWait() throws LibObjectPoolerException {
 
-		// get the current size of the object pool
-		return objectPool.size();
+		return getWait(15 * 1000);
 	}
 
 	/**
-	 * Get the max size of the pool.
+	 * Waits for an instance of a pooled object.
 	 * 
-	 * @return The maximum number of objects allowed in the pool.
+	 * @param timeout the time to wait (ms)
+	 * @return an instance of the pooled object
+	 * @throws LibObjectPoolerException failed to get object before timeout
 	 */
-	public int getMaxPoolSize() {
+	public T getWait(long timeout) throws LibObjectPoolerException {
 
-		return maxPoolSize;
+		return getWait(timeout, TimeUnit.MILLISECONDS);
 	}
 
 	/**
-	 * Set the max size of the pool.
+	 * Waits for an instance of a pooled object.
 	 * 
-	 * @param maxPoolSize The maximum number of objects allowed in the pool.
+	 * Waiters are served in arrival order; a released object is handed directly
+	 * to the longest waiting thread.
+	 * 
+	 * @param timeout the time to wait
+	 * @param unit    the unit of the timeout
+	 * @return an instance of the pooled object
+	 * @throws LibObjectPoolerException failed to get object before timeout
 	 */
-	public void setMaxPoolSize(int maxPoolSize) {
+	public T getWait(long timeout, TimeUnit unit) throws LibObjectPoolerException {
 
-		// set the max pool size
-		this.maxPoolSize = maxPoolSize;
+		return acquireWait(timeout, unit).object;
 	}
 
 	/**
-	 * Release a locked object.
+	 * Start a sweep validating idle objects with the controller in the
+	 * background; objects which fail are destroyed and replaced.
 	 * 
-	 * @param t The locked object.
-	 * @return Returns true if the object was successfully returned to the pool.
+	 * This is called by the maintenance task when testing while idle is enabled.
+	 * Each sweep examines up to the validation batch size of objects, carrying on
+	 * where the previous sweep stopped, and tests them in parallel on the
+	 * validation executor. Objects used within the validation interval are
+	 * skipped; the others are claimed so they can not be borrowed while being
+	 * tested.
+	 * 
+	 * @return false if a sweep is already running, or nothing needs testing
 	 */
-	public synchronized boolean release(T t) {
+	public boolean validateIdleObjects() {
+
+		// one sweep at a time
+		if (!validating.compareAndSet(false, true)) {
+			return false;
+		}
 
-		// get the lock for the provided object
-		LibObjectPoolerLock lock = objectPool.get(t);
-		if (lock == null) {
+		LibObjectPoolerValidation<T> sweep = new LibObjectPoolerValidation<T>(nextValidationBatch());
 
-			// false if object is not pooled
+		// nothing idle for long enough
+		int workers = Math.min(sweep.size(), Math.max(1, validationParallelism));
+		if (workers == 0) {
+
+			validating.set(false);
 			return false;
 		}
 
-		// return successful unlock
-		lock.unlock();
+		sweep.start(workers);
+		for (int x = 0; x < workers; x++) {
+
+			try {
+
+				validationExecutor.execute(() -> validationWorker(sweep));
+			} catch (RejectedExecutionException e) {
+
+				// the other workers take its share
+				if (sweep.onWorkerDone()) {
+					validating.set(false);
+				}
+			}
+		}
+
 		return true;
 	}
 
 	/**
-	 * Get current number of locked objects.
+	 * Lock or create an object, failing if none is available.
 	 * 
-	 * @return The number of objects in the pool that are currently locked.
+	 * @return the locked entry
+	 * @throws LibObjectPoolerException the pool is at max capacity
 	 */
-	public int getNumLocked() {
+	private LibObjectPoolerEntry<T> acquireNow() throws LibObjectPoolerException {
+
+		long started = System.nanoTime();
+		Throwable stack = borrowStack();
+
+		// idle objects belong to queued waiters first
+		LibObjectPoolerEntry<T> entry = (waiters.get() > 0) ? null : acquireValid(started);
+		if (entry != null) {
 
-		int locked = 0;
-		for (T t : objectPool.keySet()) {
+			onBorrowed(entry, started, takenAt(started), stack);
+			return entry;
+		}
 
-			LibObjectPoolerLock lock = objectPool.get(t);
-			if (lock.isLocked()) {
+		entry = acquireNew();
+		if (entry == null) {
 
-				locked++;
+			// fail fast while creates are backing off
+			if (!backoff.isClosed()) {
+				throw new LibObjectPoolerException("pool is backing off", backoff.getBackoffReason());
 			}
+
+			throw new LibObjectPoolerException("pool is at max capacity");
 		}
 
-		return locked;
+		onBorrowed(entry, started, handedAt(started), stack);
+		return entry;
 	}
 
 	/**
-	 * Get the current max object age.
+	 * Lock or create an object, waiting in the queue if none is available.
 	 * 
-	 * @return The age of the oldest object in the pool.
+	 * @param timeout the time to wait
+	 * @param unit    the unit of the timeout
+	 * @return the locked entry
+	 * @throws LibObjectPoolerException failed to get object before timeout
 	 */
-	public long getMaxAge() {
+	private LibObjectPoolerEntry<T> acquireWait(long timeout, TimeUnit unit) throws LibObjectPoolerException {
 
-		long oldestLock = 0;
+		long started = System.nanoTime();
+		long deadline = started + unit.toNanos(timeout);
+		Throwable stack = borrowStack();
 
-		// loop each object
-		for (T t : objectPool.keySet()) {
+		// try without queuing first, unless others are already queued
+		LibObjectPoolerEntry<T> entry;
+		if (waiters.get() == 0) {
 
-			// get the lock
-			LibObjectPoolerLock lock = objectPool.get(t);
+			if ((entry = acquireValid(started)) != null) {
 
-			// calculate age
-			long age = (System.currentTimeMillis() - lock.getCreated());
+				onBorrowed(entry, started, takenAt(started), stack);
+				return entry;
+			}
 
-			// check if oldest
-			if (age > oldestLock) {
+			if ((entry = acquireNew()) != null) {
 
-				oldestLock = age;
+				onBorrowed(entry, started, handedAt(started), stack);
+				return entry;
 			}
 		}
 
-		// return oldest lock
-		return oldestLock;
-	}
+		// count, then queue, then check again; a release racing the enqueue
+		// either sees the count or leaves an object for the check
+		LibObjectPoolerWaiter<T> waiter = new LibObjectPoolerWaiter<T>();
+		if (!enqueue(waiter)) {
+			throw new LibObjectPoolerException("too many waiters");
+		}
 
-	/**
-	 * Set the maximum allowed age of an object.
-	 * 
-	 * @param maxAge Expire any objects which are older then the maximum allowable
-	 *               age.
-	 */
-	public void setMaxAge(long maxAge) {
+		try {
 
-		this.maxAge = maxAge;
-	}
+			while (true) {
 
-	/**
-	 * Get the current max object idle time.
-	 * 
-	 * @return The maximum idle time of all objects in the pool.
-	 */
-	public long getMaxIdle() {
+				// an object may have been freed, or capacity made available
+				if (waiter.isWaiting() && (entry = acquireWaiting(waiter)) != null) {
+
+					if (waiter.cancel()) {
 
-		long oldestIdle = 0;
+						onBorrowed(entry, started, handedAt(started), stack);
+						return entry;
+					}
 
-		// loop each object
-		for (T t : objectPool.keySet()) {
+					// handed one at the same time, keep that one instead
+					releaseEntry(entry);
+				}
 
-			// get the lock
-			LibObjectPoolerLock lock = objectPool.get(t);
+				// handed an object by a releasing thread
+				if ((entry = waiter.getEntry()) != null) {
 
-			// skip if locked
-			if (lock.isLocked()) {
-				continue;
-			}
+					onBorrowed(entry, started, handedAt(started), stack);
+					return entry;
+				}
 
-			// get last lock time
-			long locked = lock.getLastLocked();
-			if (locked > 0) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
 
-				// calculate idle time
-				long idle = (System.currentTimeMillis() - locked);
+					if (waiter.cancel()) {
 
-				// compare to oldest
-				if (idle > oldestIdle) {
-					oldestIdle = idle;
+						notifyTimeout();
+						throw new LibObjectPoolerException("failed to get object before timeout");
+					}
+
+					continue;
+				}
+
+				if (Thread.interrupted()) {
+
+					if (waiter.cancel()) {
+						Thread.currentThread().interrupt();
+						throw new LibObjectPoolerException("interrupted while waiting for object");
+					}
+
+					continue;
 				}
+
+				// park until handed an object, signalled or timed out
+				LockSupport.parkNanos(this, remaining);
 			}
-		}
+		} finally {
+
+			waiters.decrementAndGet();
 
-		// return oldest lock
-		return oldestIdle;
+			// handed waiters were already taken off the queue
+			if (waiter.getEntry() == null) {
+				waitQueue.remove(waiter);
+			}
+		}
 	}
 
 	/**
-	 * Set the maximum allowed object idle time.
+	 * Asynchronously get an instance of a pooled object.
 	 * 
-	 * @param timeoutIdle Expire any objects which have been idle for longer then
-	 *                    the maximum allowed time.
+	 * Uses default timeout (15s)
+	 * 
+	 * @return a future completed with a locked object
 	 */
-	public void setMaxIdleTime(long timeoutIdle) {
+	public CompletableFuture<T> getAsync() {
 
-		this.timeoutIdle = timeoutIdle;
+		return getAsync(15 * 1000, TimeUnit.MILLISECONDS);
 	}
 
 	/**
-	 * Get the object which has been locked the most.
+	 * Asynchronously get an instance of a pooled object.
 	 * 
-	 * @return The number of times the object has been locked.
+	 * The future is completed by a releasing thread, or by a new object created
+	 * on the async executor; the calling thread never blocks. Cancelling the
+	 * future removes it from the wait queue.
+	 * 
+	 * @param timeout the time to wait
+	 * @param unit    the unit of the timeout
+	 * @return a future completed with a locked object
 	 */
-	public long getMaxLockCount() {
+	public CompletableFuture<T> getAsync(long timeout, TimeUnit unit) {
 
-		long maxCount = 0;
+		final long started = System.nanoTime();
+		final Throwable stack = borrowStack();
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+
+		// serve it right away if something valid is idle and nobody is queued
+		LibObjectPoolerEntry<T> entry;
+		if (waiters.get() == 0 && (entry = acquireValid(started)) != null) {
 
-		// loop each object
-		for (T t : objectPool.keySet()) {
+			onBorrowed(entry, started, takenAt(started), stack);
+			future.complete(entry.object);
+			return future;
+		}
+
+		if (!allowCreateNew) {
+
+			future.completeExceptionally(new LibObjectPoolerException("pool is not allowing new objects"));
+			return future;
+		}
+
+		final LibObjectPoolerWaiter<T> waiter = new LibObjectPoolerWaiter<T>(future);
+		if (!enqueue(waiter)) {
+
+			future.completeExceptionally(new LibObjectPoolerException("too many waiters"));
+			return future;
+		}
 
-			// get the lock
-			LibObjectPoolerLock lock = objectPool.get(t);
+		// fail it once the timeout is reached
+		final ScheduledFuture<?> timeoutTask = scheduler.schedule(() -> {
 
-			// calculate idle time
-			long lockCount = lock.getLockCount();
+			if (waiter.fail(new LibObjectPoolerException("failed to get object before timeout"))) {
+				notifyTimeout();
+			}
+		}, Math.max(1, unit.toNanos(timeout)), TimeUnit.NANOSECONDS);
+
+		// clean up however it finishes
+		future.whenComplete((t, e) -> {
+
+			timeoutTask.cancel(false);
+			waiters.decrementAndGet();
+
+			// completed only once an entry was handed over
+			if (t != null) {
+				onBorrowed(waiter.getEntry(), started, handedAt(started), stack);
+			}
 
-			// check if oldest
-			if (lockCount > maxCount) {
+			// cancelled or failed waiters may still be queued
+			if (t == null) {
 
-				maxCount = lockCount;
+				waiter.cancel();
+				waitQueue.remove(waiter);
 			}
+		});
+
+		// an object may have been released before we queued
+		handOff();
+
+		// create one in the background if there is room
+		if (!future.isDone() && getPoolSize() < maxPoolSize) {
+			createAsync();
 		}
 
-		// return oldest lock
-		return maxCount;
+		return future;
 	}
 
 	/**
-	 * Set the maximum number of times an object is allowed to be locked.
+	 * Get the maximum number of queued borrowers.
 	 * 
-	 * @param maxLockCount Expire any objects which have been locked more then the
-	 *                     maximum allowable amount.
+	 * @return the maximum number of waiters, 0 for unlimited
 	 */
-	public void setMaxLockCount(long maxLockCount) {
+	public int getMaxWaiters() {
 
-		this.maxLockCount = maxLockCount;
+		return maxWaiters;
 	}
 
 	/**
-	 * Set the maximum amount of time an object can remain locked before being
-	 * forcibly destroyed.
+	 * Get the minimum number of idle objects kept ready.
 	 * 
-	 * @param maxLockTime Force expire objects which have been locked more then this
-	 *                    amount of time.
+	 * @return the minimum number of idle objects
 	 */
-	public void setMaxLockTime(long maxLockTime) {
+	public int getMinIdle() {
 
-		this.maxLockTime = maxLockTime;
+		return minIdle;
 	}
 
 	/**
-	 * Destroys a pooled object, if not locked.
+	 * Set the minimum number of idle objects kept ready; missing objects are
+	 * created in the background, never exceeding the max pool size.
 	 * 
-	 * @param t The object.
-	 * @return Returns true if the object was destroyed from the pool.
+	 * @param minIdle the minimum number of idle objects
 	 */
-	public boolean destroy(T t) {
+	public void setMinIdle(int minIdle) {
 
-		return destroy(t, false);
+		this.minIdle = minIdle;
+
+		// start filling now
+		fillIdle();
 	}
 
 	/**
-	 * Destroy a pooled object, optionally with force.
+	 * Create objects on the calling thread until the pool holds the requested
+	 * number of objects, or reaches its max size.
 	 * 
-	 * @param t The object.
-	 * @return Returns true if the object was destroyed from the pool.
+	 * Blocks while other threads are creating objects and the create limit is
+	 * reached; stops early only if the capacity shared with other pools is used
+	 * up.
+	 * 
+	 * @param count the number of objects the pool should hold
+	 * @return the number of objects created
+	 * @throws LibObjectPoolerException failed to create an object, or creation
+	 *                                  is backing off
 	 */
-	public synchronized boolean destroy(T t, boolean force) {
+	public int prefill(int count) throws LibObjectPoolerException {
 
-		synchronized (t) {
+		int created = 0;
+		while (getPoolSize() < Math.min(count, maxPoolSize)) {
 
-			// get the lock for the provided object
-			LibObjectPoolerLock lock = objectPool.get(t);
-			if (lock == null) {
+			LibObjectPoolerEntry<T> entry;
+			try {
 
-				// false if object is not pooled
-				return false;
+				entry = create(false);
+			} catch (LibObjectPoolerBackoffException e) {
+
+				throw new LibObjectPoolerException("failed to prefill pool", e.getBackoffReason());
 			}
 
-			// check that it is not locked
-			if (!force && lock.isLocked()) {
+			if (entry != null) {
 
-				return false;
+				releaseEntry(entry);
+				created++;
+				continue;
 			}
 
-			// remove from map
-			objectPool.remove(t);
+			// another create failed meanwhile
+			if (!backoff.isClosed()) {
+				throw new LibObjectPoolerException("failed to prefill pool", backoff.getBackoffReason());
+			}
 
-			// call destroy
-			controller.onDestroy(t);
-		}
+			// other pools hold the rest of the shared capacity
+			LibObjectPoolerCapacity shared = capacity;
+			if (shared != null && shared.isFull()) {
+				break;
+			}
 
-		// return success
+			// too many creates running; wait for one to finish
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+			if (Thread.interrupted()) {
+
+				Thread.currentThread().interrupt();
+				throw new LibObjectPoolerException("interrupted while prefilling pool");
+			}
+		}
+
+		return created;
+	}
+
+	/**
+	 * Create objects in parallel until the pool holds the requested number of
+	 * objects, or reaches its max size.
+	 * 
+	 * Uses the max concurrent creates as the parallelism, or the number of
+	 * processors if unlimited.
+	 * 
+	 * @param count    the number of objects the pool should hold
+	 * @param executor the executor to create objects on
+	 * @return the warm up progress, completed once every object was attempted
+	 */
+	public LibObjectPoolerWarmUp warmUp(int count, Executor executor) {
+
+		int parallelism = maxConcurrentCreates;
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+
+		return warmUp(count, executor, parallelism);
+	}
+
+	/**
+	 * Create objects in parallel until the pool holds the requested number of
+	 * objects, or reaches its max size.
+	 * 
+	 * Each object is attempted up to three times, waiting out the backoff delay
+	 * between attempts; an object which still fails is counted and the warm up
+	 * carries on with the rest.
+	 * 
+	 * @param count       the number of objects the pool should hold
+	 * @param executor    the executor to create objects on
+	 * @param parallelism the maximum number of objects created at once
+	 * @return the warm up progress, completed once every object was attempted
+	 */
+	public LibObjectPoolerWarmUp warmUp(int count, Executor executor, int parallelism) {
+
+		int target = Math.min(count, maxPoolSize);
+		int missing = Math.max(0, target - getPoolSize());
+
+		LibObjectPoolerWarmUp warmUp = new LibObjectPoolerWarmUp(target, missing);
+
+		// nothing to do
+		int workers = Math.min(missing, Math.max(1, parallelism));
+		if (workers == 0) {
+
+			warmUp.complete(0);
+			return warmUp;
+		}
+
+		warmUp.start(workers);
+		for (int x = 0; x < workers; x++) {
+			executor.execute(() -> warmUpWorker(warmUp, executor, false, 0));
+		}
+
+		return warmUp;
+	}
+
+	/**
+	 * Check if object creation is currently backing off after a failure.
+	 * 
+	 * @return true if creates are backing off
+	 */
+	public boolean isBackingOff() {
+
+		return !backoff.isClosed();
+	}
+
+	/**
+	 * Get the maximum delay between creation retries.
+	 * 
+	 * @return the maximum backoff delay (ms)
+	 */
+	public long getMaxBackoffDelay() {
+
+		return backoff.getMaxBackoffDelay();
+	}
+
+	/**
+	 * Set the maximum delay between creation retries.
+	 * 
+	 * After a failed create, borrowers are served from idle objects or fail
+	 * fast (get) / stay queued (getWait, getAsync) while a single retry is run in
+	 * the background once the backoff delay has passed.
+	 * 
+	 * @param maxBackoffDelay the maximum backoff delay (ms)
+	 */
+	public void setMaxBackoffDelay(long maxBackoffDelay) {
+
+		backoff.setMaxBackoffDelay(maxBackoffDelay);
+	}
+
+	/**
+	 * Get the maximum number of objects which may be created at the same time.
+	 * 
+	 * @return the maximum number of concurrent creates, 0 for unlimited
+	 */
+	public int getMaxConcurrentCreates() {
+
+		return maxConcurrentCreates;
+	}
+
+	/**
+	 * Set the maximum number of objects which may be created at the same time.
+	 * 
+	 * Objects are created outside of any pool lock, so a slow controller only
+	 * delays the borrower that triggered the creation.
+	 * 
+	 * @param maxConcurrentCreates the maximum number of concurrent creates, 0 for
+	 *                             unlimited
+	 */
+	public void setMaxConcurrentCreates(int maxConcurrentCreates) {
+
+		this.maxConcurrentCreates = maxConcurrentCreates;
+
+		// waiters may be able to create now
+		signalWaiter();
+	}
+
+	/**
+	 * Get the maximum number of due objects examined per expire check.
+	 * 
+	 * @return the eviction batch size, 0 for unlimited
+	 */
+	public int getEvictionBatchSize() {
+
+		return evictionBatchSize;
+	}
+
+	/**
+	 * Set the maximum number of due objects examined per expire check; any left
+	 * over are examined by a follow up check straight away.
+	 * 
+	 * @param evictionBatchSize the eviction batch size, 0 for unlimited
+	 */
+	public void setEvictionBatchSize(int evictionBatchSize) {
+
+		this.evictionBatchSize = evictionBatchSize;
+	}
+
+	/**
+	 * Set the executor used to destroy expired objects.
+	 * 
+	 * @param destroyExecutor the executor, defaults to the daemon threads shared by
+	 *                        all pools
+	 */
+	public void setDestroyExecutor(Executor destroyExecutor) {
+
+		this.destroyExecutor = destroyExecutor;
+	}
+
+	/**
+	 * Set the maximum number of queued borrowers; further getWait() and
+	 * getAsync() calls fail immediately while the queue is full.
+	 * 
+	 * @param maxWaiters the maximum number of waiters, 0 for unlimited
+	 */
+	public void setMaxWaiters(int maxWaiters) {
+
+		this.maxWaiters = maxWaiters;
+	}
+
+	/**
+	 * Set the executor used to create objects for asynchronous borrowers.
+	 * 
+	 * @param asyncExecutor the executor, defaults to the daemon threads shared by
+	 *                      all pools
+	 */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * Get the interval between expire checks.
+	 * 
+	 * @return the expire check interval (ms)
+	 */
+	public long getExpireCheckInterval() {
+
+		return expireCheckInterval;
+	}
+
+	/**
+	 * Set the interval between expire checks.
+	 * 
+	 * @param expireCheckInterval the expire check interval (ms)
+	 */
+	public void setExpireCheckInterval(long expireCheckInterval) {
+
+		this.expireCheckInterval = expireCheckInterval;
+		rescheduleExpire();
+	}
+
+	/**
+	 * Get the current size of the pool.
+	 * 
+	 * @return The number of objects currently in the pool.
+	 */
+	public int getPoolSize() {
+
+		// get the current size of the object pool
+		return objectPool.size();
+	}
+
+	/**
+	 * Get the max size of the pool.
+	 * 
+	 * @return The maximum number of objects allowed in the pool.
+	 */
+	public int getMaxPoolSize() {
+
+		return maxPoolSize;
+	}
+
+	/**
+	 * Set the max size of the pool.
+	 * 
+	 * @param maxPoolSize The maximum number of objects allowed in the pool.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+
+		// set the max pool size, a fixed size pool can not grow
+		this.maxPoolSize = Math.min(maxPoolSize, store.capacity());
+
+		// waiters may be able to create now
+		signalWaiter();
+	}
+
+	/**
+	 * Release a locked object.
+	 * 
+	 * @param t The locked object.
+	 * @return Returns true if the object was successfully returned to the pool.
+	 */
+	public boolean release(T t) {
+
+		// get the entry for the provided object
+		LibObjectPoolerEntry<T> entry = lookup(t);
+		if (entry == null) {
+
+			// false if object is not pooled, or reclaimed and now destroyed
+			return destroyReclaimed(t);
+		}
+
+		onReturned(entry);
+		releaseEntry(entry);
+		return true;
+	}
+
+	/**
+	 * Release an object borrowed through a handle.
+	 * 
+	 * @param entry      the borrowed entry
+	 * @param generation the lock count of the borrow
+	 */
+	void release(LibObjectPoolerEntry<T> entry, long generation) {
+
+		// ignore a handle outliving its borrow, unless it was reclaimed
+		if (!isBorrow(entry, generation)) {
+
+			if (entry.lock.getLockCount() == generation) {
+				destroyReclaimed(entry.object);
+			}
+			return;
+		}
+
+		onReturned(entry);
+		releaseEntry(entry);
+	}
+
+	/**
+	 * Destroy an object borrowed through a handle.
+	 * 
+	 * @param entry      the borrowed entry
+	 * @param generation the lock count of the borrow
+	 * @return true if the object was destroyed
+	 */
+	boolean invalidate(LibObjectPoolerEntry<T> entry, long generation) {
+
+		// ignore a handle outliving its borrow, unless it was reclaimed
+		if (!isBorrow(entry, generation)) {
+			return (entry.lock.getLockCount() == generation) && destroyReclaimed(entry.object);
+		}
+
+		if (!retire(entry, true)) {
+			return false;
+		}
+
+		destroyNow(entry);
+		return true;
+	}
+
+	/**
+	 * Returns true if an entry is still locked by the given borrow.
+	 * 
+	 * @param entry      the entry
+	 * @param generation the lock count of the borrow
+	 * @return is still borrowed
+	 */
+	private static boolean isBorrow(LibObjectPoolerEntry<?> entry, long generation) {
+
+		return entry.lock.isLocked() && entry.lock.getLockCount() == generation;
+	}
+
+	/**
+	 * Check if released objects are cached per thread.
+	 * 
+	 * @return true if thread affinity is enabled
+	 */
+	public boolean getThreadAffinity() {
+
+		return threadAffinity;
+	}
+
+	/**
+	 * Cache released objects per thread so the releasing thread reclaims its own
+	 * object first on the next borrow without touching shared state.
+	 * 
+	 * Objects are still published to the shared queue, and are handed to other
+	 * threads first whenever a waiter is present.
+	 * 
+	 * @param threadAffinity enable the per thread cache
+	 */
+	public void setThreadAffinity(boolean threadAffinity) {
+
+		this.threadAffinity = threadAffinity;
+	}
+
+	/**
+	 * Get current number of locked objects.
+	 * 
+	 * @return The number of objects in the pool that are currently locked.
+	 */
+	public int getNumLocked() {
+
+		return lockedCount.intValue();
+	}
+
+	/**
+	 * Get current number of idle objects.
+	 * 
+	 * @return The number of objects in the pool that are not locked.
+	 */
+	public int getNumIdle() {
+
+		// only objects in the pool; capacity reserved by creates still running
+		// holds no object yet
+		return Math.max(0, objectPool.size() - lockedCount.intValue());
+	}
+
+	/**
+	 * Get current number of queued borrowers.
+	 * 
+	 * @return The number of threads and futures waiting for an object.
+	 */
+	public int getNumWaiting() {
+
+		return waiters.get();
+	}
+
+	/**
+	 * Get the metrics the pool reports its events to.
+	 * 
+	 * @return the metrics
+	 */
+	public LibObjectPoolerMetrics getMetrics() {
+
+		return metrics;
+	}
+
+	/**
+	 * Set the metrics the pool reports its events to, such as a
+	 * LibObjectPoolerJmx.
+	 * 
+	 * @param metrics the metrics, or LibObjectPoolerMetrics.none
+	 */
+	public void setMetrics(LibObjectPoolerMetrics metrics) {
+
+		this.metrics = (metrics != null) ? metrics : LibObjectPoolerMetrics.none;
+	}
+
+	/**
+	 * Get the listener notified of the lifecycle of pooled objects.
+	 * 
+	 * @return the listener
+	 */
+	public LibObjectPoolerListener<T> getListener() {
+
+		return listener;
+	}
+
+	/**
+	 * Set the listener notified of the lifecycle of pooled objects.
+	 * 
+	 * @param listener the listener, or LibObjectPoolerListener.none()
+	 */
+	public void setListener(LibObjectPoolerListener<T> listener) {
+
+		this.listener = (listener != null) ? listener : LibObjectPoolerListener.none();
+	}
+
+	/**
+	 * Check if borrow wait and hold times are recorded.
+	 * 
+	 * @return true if wait and hold times are recorded
+	 */
+	public boolean getRecordLatencies() {
+
+		return recordLatencies;
+	}
+
+	/**
+	 * Set if borrow wait and hold times are recorded. Recording reuses the time
+	 * every borrow reads anyway, and reads the clock once more on release; turning
+	 * it off saves that read and two histogram updates. Create times are always
+	 * recorded.
+	 * 
+	 * @param recordLatencies record wait and hold times, defaults to true
+	 */
+	public void setRecordLatencies(boolean recordLatencies) {
+
+		this.recordLatencies = recordLatencies;
+	}
+
+	/**
+	 * Get the time borrowers waited for an object, from calling get(), getWait()
+	 * or getAsync() to being given one; failed borrows are not recorded.
+	 * 
+	 * @return the wait time histogram (ns)
+	 */
+	public LibObjectPoolerHistogram getWaitTimes() {
+
+		return waitTimes;
+	}
+
+	/**
+	 * Get the time objects were held, from being borrowed to being released.
+	 * 
+	 * @return the hold time histogram (ns)
+	 */
+	public LibObjectPoolerHistogram getHoldTimes() {
+
+		return holdTimes;
+	}
+
+	/**
+	 * Get the time the controller took to create objects, including failed
+	 * creates.
+	 * 
+	 * @return the create time histogram (ns)
+	 */
+	public LibObjectPoolerHistogram getCreateTimes() {
+
+		return createTimes;
+	}
+
+	/**
+	 * Get the current max object age.
+	 * 
+	 * @return The age of the oldest object in the pool.
+	 */
+	public long getMaxAge() {
+
+		// the oldest object is the first one still in creation order
+		Map.Entry<Long, LibObjectPoolerEntry<T>> oldest = createOrder.firstEntry();
+		if (oldest == null) {
+			return 0;
+		}
+
+		return Math.max(0, System.currentTimeMillis() - oldest.getValue().lock.getCreated());
+	}
+
+	/**
+	 * Set the maximum allowed age of an object.
+	 * 
+	 * @param maxAge Expire any objects which are older then the maximum allowable
+	 *               age.
+	 */
+	public void setMaxAge(long maxAge) {
+
+		this.maxAge = maxAge;
+		reindex();
+	}
+
+	/**
+	 * Get the current max object idle time.
+	 * 
+	 * Taken from the unlocked object which has been idle the longest.
+	 * 
+	 * @return The maximum idle time of all objects in the pool.
+	 */
+	public long getMaxIdle() {
+
+		LibObjectPoolerEntry<T> oldest = store.oldest();
+		if (oldest == null) {
+			return 0;
+		}
+
+		// calculate idle time
+		return Math.max(0, System.currentTimeMillis() - oldest.lock.getLastLocked());
+	}
+
+	/**
+	 * Set the maximum allowed object idle time.
+	 * 
+	 * @param timeoutIdle Expire any objects which have been idle for longer then
+	 *                    the maximum allowed time.
+	 */
+	public void setMaxIdleTime(long timeoutIdle) {
+
+		this.timeoutIdle = timeoutIdle;
+		reindex();
+	}
+
+	/**
+	 * Get the object which has been locked the most.
+	 * 
+	 * @return The number of times the object has been locked.
+	 */
+	public long getMaxLockCount() {
+
+		// counted on demand, so borrowers do not pay for it
+		long maxCount = 0;
+		for (LibObjectPoolerEntry<T> entry : objectPool.values()) {
+			maxCount = Math.max(maxCount, entry.lock.getLockCount());
+		}
+
+		return maxCount;
+	}
+
+	/**
+	 * Set the maximum number of times an object is allowed to be locked.
+	 * 
+	 * @param maxLockCount Expire any objects which have been locked more then the
+	 *                     maximum allowable amount.
+	 */
+	public void setMaxLockCount(long maxLockCount) {
+
+		this.maxLockCount = maxLockCount;
+		if (maxLockCount <= 0) {
+			return;
+		}
+
+		// objects in use are checked when released, idle ones now
+		for (LibObjectPoolerEntry<T> entry : objectPool.values()) {
+
+			if (entry.lock.getLockCount() > maxLockCount
+					&& evict(entry, false, LibObjectPoolerEvictReason.MAX_LOCK_COUNT)) {
+				destroyLater(entry);
+			}
+		}
+
+		store.purge();
+	}
+
+	/**
+	 * Set the maximum amount of time an object can remain locked before being
+	 * forcibly destroyed.
+	 * 
+	 * @param maxLockTime Force expire objects which have been locked more then this
+	 *                    amount of time.
+	 */
+	public void setMaxLockTime(long maxLockTime) {
+
+		this.maxLockTime = maxLockTime;
+		reindex();
+	}
+
+	/**
+	 * Get the time after which a borrowed object is reported as leaked.
+	 * 
+	 * @return the leak detection threshold (ms), 0 if disabled
+	 */
+	public long getLeakDetectionThreshold() {
+
+		return leakThreshold;
+	}
+
+	/**
+	 * Report objects held for longer than this as leaked, to the listener and
+	 * metrics, then take the leak action. Each borrow is reported once.
+	 * 
+	 * @param leakThreshold the leak detection threshold (ms), 0 to disable
+	 */
+	public void setLeakDetectionThreshold(long leakThreshold) {
+
+		this.leakThreshold = leakThreshold;
+		reindex();
+	}
+
+	/**
+	 * Get how often the stack of a borrower is captured for leak reports.
+	 * 
+	 * @return capture one in this many borrows, 0 for never
+	 */
+	public int getLeakStackSampling() {
+
+		return leakStackSampling;
+	}
+
+	/**
+	 * Capture the stack of one in this many borrowers, chosen at random, so leak
+	 * reports can show where the object was borrowed; capturing a stack is
+	 * expensive, 1 captures every borrow.
+	 * 
+	 * @param leakStackSampling capture one in this many borrows, 0 for never
+	 */
+	public void setLeakStackSampling(int leakStackSampling) {
+
+		this.leakStackSampling = leakStackSampling;
+	}
+
+	/**
+	 * Get what is done with leaked objects.
+	 * 
+	 * @return the leak action
+	 */
+	public LibObjectPoolerLeakAction getLeakAction() {
+
+		return leakAction;
+	}
+
+	/**
+	 * Set what is done with leaked objects, once reported.
+	 * 
+	 * @param leakAction the leak action, defaults to REPORT
+	 */
+	public void setLeakAction(LibObjectPoolerLeakAction leakAction) {
+
+		this.leakAction = leakAction;
+	}
+
+	/**
+	 * Check if idle objects are validated before being handed out.
+	 * 
+	 * @return true if objects are tested on borrow
+	 */
+	public boolean getTestOnBorrow() {
+
+		return testOnBorrow;
+	}
+
+	/**
+	 * Validate idle objects with the controller before handing them out; objects
+	 * which fail are destroyed and the next one is tried. New objects are not
+	 * tested.
+	 * 
+	 * @param testOnBorrow test objects on borrow
+	 */
+	public void setTestOnBorrow(boolean testOnBorrow) {
+
+		this.testOnBorrow = testOnBorrow;
+	}
+
+	/**
+	 * Check if objects are validated when released.
+	 * 
+	 * @return true if objects are tested on return
+	 */
+	public boolean getTestOnReturn() {
+
+		return testOnReturn;
+	}
+
+	/**
+	 * Validate objects with the controller when they are released; objects which
+	 * fail are destroyed instead of returned to the pool.
+	 * 
+	 * @param testOnReturn test objects on return
+	 */
+	public void setTestOnReturn(boolean testOnReturn) {
+
+		this.testOnReturn = testOnReturn;
+	}
+
+	/**
+	 * Check if idle objects are validated by the maintenance task.
+	 * 
+	 * @return true if objects are tested while idle
+	 */
+	public boolean getTestWhileIdle() {
+
+		return testWhileIdle;
+	}
+
+	/**
+	 * Validate idle objects with the controller once every expire check interval;
+	 * objects which fail are destroyed.
+	 * 
+	 * @param testWhileIdle test objects while idle
+	 */
+	public void setTestWhileIdle(boolean testWhileIdle) {
+
+		this.testWhileIdle = testWhileIdle;
+	}
+
+	/**
+	 * Get the maximum number of objects examined per idle validation sweep.
+	 * 
+	 * @return the validation batch size, 0 for unlimited
+	 */
+	public int getValidationBatchSize() {
+
+		return validationBatchSize;
+	}
+
+	/**
+	 * Set the maximum number of objects examined per idle validation sweep; the
+	 * next sweep carries on with the objects after them.
+	 * 
+	 * @param validationBatchSize the validation batch size, 0 for unlimited
+	 */
+	public void setValidationBatchSize(int validationBatchSize) {
+
+		this.validationBatchSize = validationBatchSize;
+	}
+
+	/**
+	 * Get the maximum number of idle objects validated at once.
+	 * 
+	 * @return the validation parallelism
+	 */
+	public int getValidationParallelism() {
+
+		return validationParallelism;
+	}
+
+	/**
+	 * Set the maximum number of idle objects validated at once.
+	 * 
+	 * @param validationParallelism the validation parallelism
+	 */
+	public void setValidationParallelism(int validationParallelism) {
+
+		this.validationParallelism = validationParallelism;
+	}
+
+	/**
+	 * Set the executor used to validate idle objects, and to create their
+	 * replacements.
+	 * 
+	 * @param validationExecutor the executor, defaults to the daemon threads
+	 *                           shared by all pools
+	 */
+	public void setValidationExecutor(Executor validationExecutor) {
+
+		this.validationExecutor = validationExecutor;
+	}
+
+	/**
+	 * Get the time after use during which an object is not validated.
+	 * 
+	 * @return the validation interval (ms)
+	 */
+	public long getValidationInterval() {
+
+		return validationInterval;
+	}
+
+	/**
+	 * Skip validating objects on borrow and while idle if they were last borrowed
+	 * within this interval; an object in regular use is known to work.
+	 * 
+	 * @param validationInterval the validation interval (ms), 0 to always validate
+	 */
+	public void setValidationInterval(long validationInterval) {
+
+		this.validationInterval = validationInterval;
+	}
+
+	/**
+	 * Destroys a pooled object, if not locked.
+	 * 
+	 * @param t The object.
+	 * @return Returns true if the object was destroyed from the pool.
+	 */
+	public boolean destroy(T t) {
+
+		return destroy(t, false);
+	}
+
+	/**
+	 * Destroy a pooled object, optionally with force.
+	 * 
+	 * @param t The object.
+	 * @return Returns true if the object was destroyed from the pool.
+	 */
+	public boolean destroy(T t, boolean force) {
+
+		// get the entry for the provided object
+		LibObjectPoolerEntry<T> entry = lookup(t);
+		if (entry == null) {
+
+			// false if object is not pooled, or reclaimed and now destroyed
+			return destroyReclaimed(t);
+		}
+
+		// claim it so it can no longer be borrowed
+		if (!retire(entry, force)) {
+
+			return false;
+		}
+
+		// call destroy
+		destroyNow(entry);
+
+		// return success
+		return true;
+	}
+
+	/**
+	 * Request that all items in the pool be destroyed.
+	 * 
+	 * @return number of items destroyed
+	 */
+	public int destroyAll() {
+
+		int destroyed = 0;
+
+		// loop each existing object
+		for (LibObjectPoolerEntry<T> entry : objectPool.values()) {
+
+			// destroy it
+			destroyed += destroy(entry.object) ? 1 : 0;
+		}
+
+		// drop them from the store in one sweep
+		store.purge();
+
+		// return the number destroyed
+		return destroyed;
+	}
+
+	/**
+	 * Shutdown the pooler and destroy all objects.
+	 */
+	public synchronized void shutdown() {
+
+		// disallow new objects
+		allowCreateNew = false;
+
+		// stop the expire checks; a running pass sees the flag and stops there
+		shutdown = true;
+		if (expireTask != null) {
+
+			expireTask.cancel(false);
+			expireTask = null;
+			expireAt = Long.MAX_VALUE;
+		}
+
+		// fail anyone still waiting
+		LibObjectPoolerException e = new LibObjectPoolerException("pool is not allowing new objects");
+		for (LibObjectPoolerWaiter<T> waiter : waitQueue) {
+			waiter.fail(e);
+		}
+
+		// destroy all existing
+		destroyAll();
+
+		// and those reclaimed but never released
+		for (LibObjectPoolerEntry<T> entry : reclaimed.values()) {
+			destroyReclaimed(entry.object);
+		}
+	}
+
+	/**
+	 * Destroy expired objects; this is called whenever the earliest deadline in
+	 * the expiry index passes, and at least every expire check interval.
+	 * 
+	 * Only objects which are due are examined, at most the eviction batch size
+	 * per call. Expired objects are claimed so they can not be borrowed, and
+	 * destroyed on the destroy executor.
+	 */
+	public void destroyExpiredObjects() {
+
+		// one pass at a time
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+
+		int evicted = 0;
+		boolean more = false;
+		try {
+
+			// the clocks drift apart slowly, line them up on every pass
+			syncClock();
+
+			int batchSize = evictionBatchSize;
+			long now = System.currentTimeMillis();
+
+			// loop each object which is due
+			int examined = 0;
+			LibObjectPoolerEntry<T> entry;
+			while (!shutdown && (batchSize <= 0 || examined < batchSize) && (entry = expiry.pollDue(now)) != null) {
+
+				examined++;
+
+				// get the lock
+				LibObjectPoolerLock lock = entry.lock;
+				if (lock.isDestroyed()) {
+					continue;
+				}
+
+				// calculate expiration times
+				long deadline = getDeadline(lock);
+				boolean expired = (now > deadline);
+
+				// held for too long, whether or not it also expired
+				if (lock.isLocked() && checkHeld(entry, now)) {
+
+					evicted++;
+					continue;
+				}
+
+				// check if should be destroyed
+				if (expired && evict(entry, false, expireReason(lock, now))) {
+
+					// destroy off the maintenance thread
+					destroyLater(entry);
+					evicted++;
+					continue;
+				}
+
+				// not expired yet, or in use; look again at its deadline or next interval
+				expiry.add(entry, nextCheck(lock, now, expired ? (now + expireCheckInterval) : deadline));
+			}
+
+			more = (batchSize > 0 && examined >= batchSize);
+		} finally {
+
+			evicting.set(false);
+		}
+
+		// continue with the next slice right away, or sleep until the next deadline
+		scheduleExpire(more ? System.currentTimeMillis() : expiry.nextDeadline());
+
+		// drop evicted objects from the store in one sweep
+		if (evicted > 0) {
+			store.purge();
+		}
+
+		// replace what was destroyed
+		fillIdle();
+	}
+
+	/**
+	 * Lock an idle object which still validates, destroying those which do not.
+	 * 
+	 * @param now the time the borrower asked for it (ns)
+	 * @return the locked entry, or null if nothing valid is idle
+	 */
+	private LibObjectPoolerEntry<T> acquireValid(long now) {
+
+		LibObjectPoolerEntry<T> entry;
+		while ((entry = acquireIdle(now)) != null) {
+
+			// hand out only objects which still validate
+			if (!testOnBorrow || testBorrowed(entry)) {
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Create a new object if there is capacity, without taking idle ones.
+	 * 
+	 * @return the locked entry, or null if the pool is at max capacity
+	 */
+	private LibObjectPoolerEntry<T> acquireNew() {
+
+		// idle objects ran out, top them up for the next borrowers
+		if (minIdle > 0) {
+			fillIdle();
+		}
+
+		try {
+
+			// return a new object
+			return create(false);
+
+		} catch (LibObjectPoolerBackoffException e) {
+
+			// retried in the background
+			return null;
+		}
+	}
+
+	/**
+	 * Lock or create an object on behalf of a queued waiter.
+	 * 
+	 * @param waiter the waiter
+	 * @return the locked entry, or null if the pool is at max capacity
+	 */
+	private LibObjectPoolerEntry<T> acquireWaiting(LibObjectPoolerWaiter<T> waiter) {
+
+		// signals skip a waiter which is already trying
+		waiter.setBusy(true);
+		try {
+
+			// idle objects go to the queue in arrival order, maybe to this one
+			handOff();
+			if (!waiter.isWaiting()) {
+				return null;
+			}
+
+			return acquireNew();
+		} finally {
+
+			waiter.setBusy(false);
+		}
+	}
+
+	/**
+	 * Lock an idle object.
+	 * 
+	 * @param now the time the borrower asked for it (ns)
+	 * @return the locked entry, or null if nothing is idle
+	 */
+	private LibObjectPoolerEntry<T> acquireIdle(long now) {
+
+		LibObjectPoolerEntry<T> entry;
+
+		// reclaim an object this thread released
+		if (threadAffinity && (entry = getThreadLocal(now)) != null) {
+
+			return entry;
+		}
+
+		// take the most recently released object
+		while ((entry = store.poll()) != null) {
+
+			// skip entries destroyed or reclaimed while idle
+			if (lock(entry, now)) {
+
+				// return the locked object
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Create an object on the async executor and hand it to a waiter.
+	 */
+	private void createAsync() {
+
+		asyncExecutor.execute(() -> {
+
+			LibObjectPoolerEntry<T> entry;
+			try {
+
+				// null if the pool filled up meanwhile
+				if ((entry = create(false)) == null) {
+					return;
+				}
+			} catch (LibObjectPoolerBackoffException | LibObjectPoolerException e) {
+
+				// waiters stay queued until a release or their timeout
+				return;
+			}
+
+			if (!offerWaiters(entry)) {
+				releaseEntry(entry);
+			}
+		});
+	}
+
+	/**
+	 * Add a waiter to the wait queue.
+	 * 
+	 * @param waiter the waiter
+	 * @return false if the wait queue is full
+	 */
+	private boolean enqueue(LibObjectPoolerWaiter<T> waiter) {
+
+		// reserve a place in the queue
+		if (!reserve(waiters, (maxWaiters > 0) ? maxWaiters : Integer.MAX_VALUE)) {
+			return false;
+		}
+
+		waitQueue.offer(waiter);
+		return true;
+	}
+
+	/**
+	 * Give a locked entry to the first waiter still waiting.
+	 * 
+	 * @param entry the locked entry
+	 * @return false if nobody took it
+	 */
+	private boolean offerWaiters(LibObjectPoolerEntry<T> entry) {
+
+		LibObjectPoolerWaiter<T> waiter;
+		while ((waiter = waitQueue.poll()) != null) {
+
+			if (waiter.offer(entry)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Return a locked entry to the pool, handing it to a waiter if there is one.
+	 * 
+	 * @param entry the locked entry
+	 */
+	private void releaseEntry(LibObjectPoolerEntry<T> entry) {
+
+		// destroy instead of reusing once the max lock count is exceeded
+		long lockLimit = maxLockCount;
+		if (lockLimit > 0 && entry.lock.getLockCount() > lockLimit) {
+
+			if (entry.lock.isLocked() && evict(entry, true, LibObjectPoolerEvictReason.MAX_LOCK_COUNT)) {
+				destroyLater(entry);
+			}
+			return;
+		}
+
+		// destroy instead of returning a broken object
+		if (testOnReturn && entry.lock.isLocked() && !validate(entry)) {
+
+			if (evict(entry, true, LibObjectPoolerEvictReason.INVALID)) {
+				destroyLater(entry);
+			}
+			return;
+		}
+
+		// another pool is waiting for room, free this object's
+		LibObjectPoolerCapacity shared = capacity;
+		if (shared != null && waiters.get() == 0 && shared.isWanted()) {
+
+			// destroyed before returning, so objects never outnumber the shared limit
+			if (entry.lock.isLocked() && evict(entry, true, LibObjectPoolerEvictReason.CAPACITY)) {
+				destroyNow(entry);
+			}
+			return;
+		}
+
+		// nothing to do if this call did not unlock it
+		if (!unlock(entry)) {
+			return;
+		}
+
+		// hand it to the longest waiting thread before newcomers can see it
+		if (waiters.get() > 0 && handOff(entry)) {
+			return;
+		}
+
+		// keep it for this thread unless someone is waiting for it
+		if (threadAffinity && waiters.get() == 0) {
+			putThreadLocal(entry);
+		}
+
+		// publish it to the store for other threads
+		store.offer(entry);
+
+		// serve waiters from the queue in arrival order
+		if (waiters.get() > 0) {
+			handOff();
+		}
+	}
+
+	/**
+	 * Hand a released entry directly to the first queued waiter.
+	 * 
+	 * @param entry the unlocked entry
+	 * @return false if nobody took it, and it should be published
+	 */
+	private boolean handOff(LibObjectPoolerEntry<T> entry) {
+
+		// claimed or destroyed since it was unlocked, its owner takes care of it
+		if (!lock(entry)) {
+			return true;
+		}
+
+		// destroyed instead if broken
+		if (testOnBorrow && !testBorrowed(entry)) {
+			return true;
+		}
+
+		if (offerWaiters(entry)) {
+			return true;
+		}
+
+		unlock(entry);
+		return false;
+	}
+
+	/**
+	 * Hand idle objects directly to queued waiters.
+	 */
+	private void handOff() {
+
+		LibObjectPoolerEntry<T> entry;
+		while (!waitQueue.isEmpty() && (entry = store.poll()) != null) {
+
+			if (!lock(entry) || (testOnBorrow && !testBorrowed(entry))) {
+				continue;
+			}
+
+			// nobody left to take it
+			if (!offerWaiters(entry)) {
+
+				unlock(entry);
+				store.offer(entry);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Let the longest waiting borrower retry on its own, after capacity was freed.
+	 */
+	private void signalWaiter() {
+
+		if (waiters.get() == 0) {
+			return;
+		}
+
+		for (LibObjectPoolerWaiter<T> waiter : waitQueue) {
+
+			// skip served waiters and threads already retrying
+			if (!waiter.isWaiting() || waiter.isBusy()) {
+				continue;
+			}
+
+			// futures are served by a background create
+			if (waiter.isAsync()) {
+
+				createAsync();
+				return;
+			}
+
+			waiter.signal();
+			return;
+		}
+	}
+
+	/**
+	 * Create objects for a warm up until none are left to claim.
+	 * 
+	 * @param warmUp   the warm up
+	 * @param executor the executor to continue on
+	 * @param claimed  true to continue with an already claimed object
+	 * @param attempt  the failed attempts of the claimed object
+	 */
+	private void warmUpWorker(LibObjectPoolerWarmUp warmUp, Executor executor, boolean claimed, int attempt) {
+
+		while (claimed || warmUp.claim()) {
+
+			claimed = false;
+
+			LibObjectPoolerEntry<T> entry;
+			try {
+
+				// warm up ignores the breaker, it has its own retries
+				entry = create(true);
+			} catch (LibObjectPoolerBackoffException e) {
+
+				// give up on this object
+				if ((attempt + 1) >= warmUpAttempts) {
+
+					warmUp.onFailed(e.getBackoffReason());
+					attempt = 0;
+					continue;
+				}
+
+				// retry it after the backoff delay
+				long delay = Math.min(e.getBackoffDelay(), backoff.getMaxBackoffDelay());
+				if (warmUpRetry(warmUp, executor, attempt + 1, delay)) {
+					return;
+				}
+
+				warmUp.onFailed(e.getBackoffReason());
+				break;
+			} catch (LibObjectPoolerException e) {
+
+				// shut down
+				warmUp.onFailed(e);
+				break;
+			}
+
+			// the pool filled up, or too many creates are running
+			if (entry == null) {
+
+				// nothing more fits, here or in the capacity shared with other pools
+				LibObjectPoolerCapacity shared = capacity;
+				if (poolCount.get() >= maxPoolSize || (shared != null && shared.isFull())) {
+					break;
+				}
+
+				// give up on this object if creates stay busy for too long
+				if ((attempt + 1) >= warmUpBusyAttempts) {
+
+					warmUp.onFailed(new LibObjectPoolerException("too many objects being created"));
+					attempt = 0;
+					continue;
+				}
+
+				// wait longer each time for the running creates
+				long delay = Math.min(10L << attempt, Math.max(10, backoff.getMaxBackoffDelay()));
+				if (warmUpRetry(warmUp, executor, attempt + 1, delay)) {
+					return;
+				}
+				break;
+			}
+
+			// waiters are served first
+			releaseEntry(entry);
+			warmUp.onCreated();
+			attempt = 0;
+		}
+
+		warmUp.onWorkerDone();
+	}
+
+	/**
+	 * Continue a warm up worker after a delay.
+	 * 
+	 * @param warmUp   the warm up
+	 * @param executor the executor to continue on
+	 * @param attempt  the failed attempts of the claimed object
+	 * @param delay    the delay (ms)
+	 * @return false if the pool is shut down
+	 */
+	private boolean warmUpRetry(LibObjectPoolerWarmUp warmUp, Executor executor, int attempt, long delay) {
+
+		if (!allowCreateNew) {
+			return false;
+		}
+
+		try {
+
+			scheduler.schedule(() -> {
+
+				executor.execute(() -> warmUpWorker(warmUp, executor, true, attempt));
+			}, Math.max(1, delay), TimeUnit.MILLISECONDS);
+
+			return true;
+		} catch (RejectedExecutionException e) {
+
+			// scheduler shut down
+			return false;
+		}
+	}
+
+	/**
+	 * Find the entry of a pooled object by identity.
+	 * 
+	 * @param t the object
+	 * @return the entry, or null if the object is not pooled
+	 */
+	private LibObjectPoolerEntry<T> lookup(T t) {
+
+		LibObjectPoolerKey key = LibObjectPoolerKey.probe(t);
+		try {
+
+			return objectPool.get(key);
+		} finally {
+
+			// do not keep the object reachable from the thread
+			key.clear();
+		}
+	}
+
+	/**
+	 * Collect the objects for the next idle validation sweep, continuing from
+	 * where the previous sweep stopped.
+	 * 
+	 * @return the entries to test
+	 */
+	private List<LibObjectPoolerEntry<T>> nextValidationBatch() {
+
+		int batchSize = validationBatchSize;
+		int limit = (batchSize > 0) ? Math.min(batchSize, objectPool.size()) : objectPool.size();
+
+		long interval = validationInterval;
+		long now = System.currentTimeMillis();
+
+		List<LibObjectPoolerEntry<T>> batch = new ArrayList<LibObjectPoolerEntry<T>>(limit);
+
+		// wrap around at most once, so no object is taken twice
+		boolean wrapped = false;
+		while (batch.size() < limit) {
+
+			if (validationCursor == null || !validationCursor.hasNext()) {
+
+				if (wrapped) {
+					break;
+				}
+
+				validationCursor = objectPool.values().iterator();
+				wrapped = true;
+				continue;
+			}
+
+			// skip recently used and borrowed objects
+			LibObjectPoolerEntry<T> entry = validationCursor.next();
+			if ((interval > 0 && (now - entry.lock.getLastLocked()) < interval) || entry.lock.isLocked()) {
+				continue;
+			}
+
+			batch.add(entry);
+		}
+
+		return batch;
+	}
+
+	/**
+	 * Validate objects of an idle validation sweep until none are left, then
+	 * replace those which failed.
+	 * 
+	 * @param sweep the sweep
+	 */
+	private void validationWorker(LibObjectPoolerValidation<T> sweep) {
+
+		int failed = 0;
+
+		LibObjectPoolerEntry<T> entry;
+		while ((entry = sweep.next()) != null) {
+
+			// borrowed or destroyed since the sweep started
+			if (!entry.lock.claim()) {
+				continue;
+			}
+
+			if (validate(entry)) {
+
+				// back to the store for borrowers
+				if (entry.lock.unclaim()) {
+
+					store.offer(entry);
+					if (waiters.get() > 0) {
+						handOff();
+					}
+				}
+				continue;
+			}
+
+			// already on a background thread
+			if (evict(entry, true, LibObjectPoolerEvictReason.INVALID)) {
+
+				destroyNow(entry);
+				failed++;
+			}
+		}
+
+		// replace what was destroyed, so borrowers do not pay for it
+		try {
+
+			for (int x = 0; x < failed; x++) {
+
+				// stop when full, backing off or shut down
+				LibObjectPoolerEntry<T> created = create(false);
+				if (created == null) {
+					break;
+				}
+
+				// waiters are served first
+				releaseEntry(created);
+			}
+		} catch (LibObjectPoolerBackoffException | LibObjectPoolerException e) {
+
+			// left to borrowers and the idle fill
+		} finally {
+
+			if (failed > 0) {
+
+				store.purge();
+				fillIdle();
+			}
+
+			// the last worker ends the sweep
+			if (sweep.onWorkerDone()) {
+				validating.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Validate a borrowed object, destroying it if it fails.
+	 * 
+	 * @param entry the locked entry
+	 * @return true if the object may be handed out
+	 */
+	private boolean testBorrowed(LibObjectPoolerEntry<T> entry) {
+
+		// known to work if it was in use a moment ago
+		long interval = validationInterval;
+		if (interval > 0 && (System.currentTimeMillis() - entry.lock.getPreviousLocked()) < interval) {
+			return true;
+		}
+
+		if (validate(entry)) {
+			return true;
+		}
+
+		if (evict(entry, true, LibObjectPoolerEvictReason.INVALID)) {
+			destroyLater(entry);
+		}
+		return false;
+	}
+
+	/**
+	 * Validate an object with the controller.
+	 * 
+	 * @param entry the entry
+	 * @return false if the object failed, or the controller threw
+	 */
+	private boolean validate(LibObjectPoolerEntry<T> entry) {
+
+		try {
+
+			return controller.onValidate(entry.object);
+		} catch (RuntimeException e) {
+
+			return false;
+		}
+	}
+
+	/**
+	 * Share a limit on the number of objects with other pools; set before the
+	 * pool is used.
+	 * 
+	 * @param capacity the shared capacity
+	 */
+	void setCapacity(LibObjectPoolerCapacity capacity) {
+
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Destroy one idle object on the calling thread, to free capacity for
+	 * another pool.
+	 * 
+	 * @return false if nothing was idle
+	 */
+	boolean evictIdle() {
+
+		LibObjectPoolerEntry<T> entry;
+		while ((entry = store.poll()) != null) {
+
+			// skip anything borrowed meanwhile
+			if (evict(entry, false, LibObjectPoolerEvictReason.CAPACITY)) {
+
+				destroyNow(entry);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Let a waiter use capacity freed by another pool.
+	 */
+	void signalWaiters() {
+
+		signalWaiter();
+	}
+
+	/**
+	 * Lock an entry, counting it as locked.
+	 * 
+	 * @param entry the entry
+	 * @return true if the caller now holds the lock
+	 */
+	private boolean lock(LibObjectPoolerEntry<T> entry) {
+
+		return lock(entry, System.nanoTime());
+	}
+
+	/**
+	 * Lock an entry at a time the caller already read, counting it as locked.
+	 * 
+	 * @param entry the entry
+	 * @param now   the current time (ns)
+	 * @return true if the caller now holds the lock
+	 */
+	private boolean lock(LibObjectPoolerEntry<T> entry, long now) {
+
+		if (!entry.lock.lock((now + clockOffset) / 1000000L)) {
+			return false;
+		}
+
+		// striped, so borrowers do not contend on the stats
+		lockedCount.increment();
+
+		// set by the borrower once handed over
+		entry.borrowStack = null;
+		return true;
+	}
+
+	/**
+	 * Line the monotonic clock up with the wall clock again, so lock times taken
+	 * from it stay comparable to System.currentTimeMillis().
+	 */
+	private void syncClock() {
+
+		clockOffset = (System.currentTimeMillis() * 1000000L) - System.nanoTime();
+	}
+
+	/**
+	 * Capture where a borrow was asked for, on the borrowing thread, if sampled.
+	 * 
+	 * @return the stack for leak reports, or null if not sampled
+	 */
+	private Throwable borrowStack() {
+
+		int sampling = leakStackSampling;
+		if (sampling > 0 && ThreadLocalRandom.current().nextInt(sampling) == 0) {
+			return new Throwable("borrowed here");
+		}
+
+		return null;
+	}
+
+	/**
+	 * Count a borrower which timed out.
+	 */
+	private void notifyTimeout() {
+
+		fire(metrics::onTimeout);
+	}
+
+	/**
+	 * Tell the listener and metrics of an event; what they throw is ignored, so
+	 * they cannot break the pool.
+	 * 
+	 * @param event the calls to make
+	 */
+	private static void fire(Runnable event) {
+
+		try {
+
+			event.run();
+		} catch (RuntimeException e) {
+
+			// listeners must not break the pool
+		}
+	}
+
+	/**
+	 * Returns when an idle object taken right away was handed over; the time it
+	 * was asked for, unless it was validated first.
+	 * 
+	 * @param started when the borrower asked for it (ns)
+	 * @return when it was handed over (ns)
+	 */
+	private long takenAt(long started) {
+
+		return testOnBorrow ? handedAt(started) : started;
+	}
+
+	/**
+	 * Returns when a borrow was handed over; the clock is only read again if the
+	 * wait time is recorded, nothing else needs it.
+	 * 
+	 * @param started when the borrower asked for it (ns)
+	 * @return when it was handed over (ns)
+	 */
+	private long handedAt(long started) {
+
+		return recordLatencies ? System.nanoTime() : started;
+	}
+
+	/**
+	 * Record a borrow, once the borrower has its object.
+	 * 
+	 * @param entry   the borrowed entry
+	 * @param started when the borrower asked for it (ns)
+	 * @param handed  when it was handed over (ns)
+	 * @param stack   where the borrower asked for it, or null
+	 */
+	private void onBorrowed(LibObjectPoolerEntry<T> entry, long started, long handed, Throwable stack) {
+
+		// where and when it was borrowed, for leak reports and hold times
+		entry.borrowStack = stack;
+		entry.lockedAt = handed;
+
+		if (recordLatencies) {
+			waitTimes.record(handed - started);
+		}
+
+		fire(() -> listener.onBorrow(entry.object));
+	}
+
+	/**
+	 * Record how long a borrowed entry was held, when it is released.
+	 * 
+	 * @param entry the entry
+	 */
+	private void onReturned(LibObjectPoolerEntry<T> entry) {
+
+		if (entry.lock.isLocked()) {
+
+			if (recordLatencies) {
+				holdTimes.record(System.nanoTime() - entry.lockedAt);
+			}
+
+			fire(() -> listener.onReturn(entry.object));
+		}
+	}
+
+	/**
+	 * Unlock an entry, no longer counting it as locked.
+	 * 
+	 * @param entry the entry
+	 * @return true if this call unlocked it
+	 */
+	private boolean unlock(LibObjectPoolerEntry<T> entry) {
+
+		if (!entry.lock.tryUnlock()) {
+			return false;
+		}
+
+		lockedCount.decrement();
+		return true;
+	}
+
+	/**
+	 * Claim an entry and remove it from the pool, freeing its capacity.
+	 * 
+	 * @param entry the entry
+	 * @param force claim it even if it is locked
+	 * @return true if the caller now owns destroying the object
+	 */
+	private boolean retire(LibObjectPoolerEntry<T> entry, boolean force) {
+
+		// claim it so it can no longer be borrowed
+		int state = entry.lock.retire(force);
+		if (state == LibObjectPoolerLock.stateDestroyed) {
+			return false;
+		}
+
+		if (state == LibObjectPoolerLock.stateLocked) {
+			lockedCount.decrement();
+		}
+
+		// remove from map, store and indexes, freeing its capacity; shared
+		// capacity is freed once the object is destroyed
+		objectPool.remove(new LibObjectPoolerKey(entry.object), entry);
+		createOrder.remove(entry.sequence, entry);
+		expiry.remove(entry);
+		store.remove(entry);
+		poolCount.release(entry.reserved);
+
+		// a waiter can use the freed capacity
+		signalWaiter();
+
+		fire(() -> {
+
+			metrics.onDestroy();
+			listener.onDestroy(entry.object);
+		});
+
+		return true;
+	}
+
+	/**
+	 * Retire an entry which the pool destroys on its own, counting the reason.
+	 * 
+	 * @param entry  the entry
+	 * @param force  retire it even if locked
+	 * @param reason why it is evicted
+	 * @return true if the caller should destroy the object
+	 */
+	private boolean evict(LibObjectPoolerEntry<T> entry, boolean force, LibObjectPoolerEvictReason reason) {
+
+		if (!retire(entry, force)) {
+			return false;
+		}
+
+		fire(() -> {
+
+			metrics.onEvict(reason);
+			listener.onEvict(entry.object, reason);
+		});
+		return true;
+	}
+
+	/**
+	 * Returns the reason an expired object is evicted.
+	 * 
+	 * @param lock the object's lock
+	 * @param now  the current time
+	 * @return the reason
+	 */
+	private LibObjectPoolerEvictReason expireReason(LibObjectPoolerLock lock, long now) {
+
+		long age = maxAge;
+		if (age > 0 && now > (lock.getCreated() + age)) {
+			return LibObjectPoolerEvictReason.MAX_AGE;
+		}
+
+		return LibObjectPoolerEvictReason.IDLE;
+	}
+
+	/**
+	 * Destroy a retired object on the destroy executor.
+	 * 
+	 * @param entry the retired entry
+	 */
+	private void destroyLater(LibObjectPoolerEntry<T> entry) {
+
+		try {
+
+			destroyExecutor.execute(() -> destroyNow(entry));
+		} catch (RejectedExecutionException e) {
+
+			// executor shut down, the capacity must still be freed
+			destroyNow(entry);
+		}
+	}
+
+	/**
+	 * Destroy a retired object, then free its shared capacity, so objects never
+	 * outnumber the shared limit.
+	 * 
+	 * @param entry the retired entry
+	 */
+	private void destroyNow(LibObjectPoolerEntry<T> entry) {
+
+		try {
+
+			controller.onDestroy(entry.object);
+		} finally {
+
+			releaseShared();
+		}
+	}
+
+	/**
+	 * Destroy an object released after it was reclaimed as leaked.
+	 * 
+	 * @param t the object
+	 * @return true if it had been reclaimed
+	 */
+	private boolean destroyReclaimed(T t) {
+
+		if (reclaimed.remove(new LibObjectPoolerKey(t)) == null) {
+			return false;
+		}
+
+		// its shared capacity was freed when it was reclaimed
+		try {
+
+			destroyExecutor.execute(() -> controller.onDestroy(t));
+		} catch (RejectedExecutionException e) {
+
+			controller.onDestroy(t);
+		}
 		return true;
+	}
+
+	/**
+	 * Give back the shared capacity of a destroyed or reclaimed object.
+	 */
+	private void releaseShared() {
 
+		LibObjectPoolerCapacity shared = capacity;
+		if (shared != null) {
+			shared.release();
+		}
 	}
 
 	/**
-	 * Request that all items in the pool be destroyed.
+	 * Top up idle objects to the minimum on the async executor.
+	 */
+	private void fillIdle() {
+
+		if (minIdle <= 0 || !allowCreateNew) {
+			return;
+		}
+
+		// one filler at a time
+		if (!filling.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+
+			asyncExecutor.execute(() -> {
+
+				try {
+
+					// count what is missing once, then create it
+					int missing = minIdle - (getPoolSize() - getNumLocked());
+					for (int x = 0; x < missing; x++) {
+
+						// stop when full, backing off or shut down
+						LibObjectPoolerEntry<T> entry = create(false);
+						if (entry == null) {
+							break;
+						}
+
+						// waiters are served first
+						releaseEntry(entry);
+					}
+				} catch (LibObjectPoolerBackoffException | LibObjectPoolerException e) {
+
+					// retried on the next fill
+				} finally {
+
+					filling.set(false);
+				}
+			});
+		} catch (RuntimeException e) {
+
+			filling.set(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * Run the trial create once the backoff delay has passed.
+	 */
+	private void retryCreate() {
+
+		// claim the trial
+		if (!backoff.tryHalfOpen()) {
+			return;
+		}
+
+		LibObjectPoolerEntry<T> entry;
+		try {
+
+			// nothing to test if the pool filled up meanwhile
+			if ((entry = create(true)) == null) {
+
+				backoff.abortTrial();
+				return;
+			}
+		} catch (LibObjectPoolerBackoffException | LibObjectPoolerException e) {
+
+			// reopened and rescheduled by create
+			backoff.abortTrial();
+			return;
+		}
+
+		// serve waiters with the new object, the next ones may create their own
+		if (!offerWaiters(entry)) {
+			releaseEntry(entry);
+		}
+		signalWaiter();
+
+		// and restore the idle minimum
+		fillIdle();
+	}
+
+	/**
+	 * Schedule the trial create off the borrowing threads.
 	 * 
-	 * @return number of items destroyed
+	 * @param delay the backoff delay (ms)
 	 */
-	public synchronized int destroyAll() {
+	private void scheduleRetry(long delay) {
 
-		int destroyed = 0;
+		if (!allowCreateNew) {
+			return;
+		}
 
-		// loop each existing object
-		for (T t : objectPool.keySet()) {
+		try {
 
-			// destroy it
-			destroyed += destroy(t) ? 1 : 0;
+			scheduler.schedule(() -> {
+
+				asyncExecutor.execute(() -> retryCreate());
+			}, Math.max(1, delay), TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+
+			// scheduler shut down
 		}
+	}
 
-		// return the number destroyed
-		return destroyed;
+	/**
+	 * Returns the time at which an object expires under the current limits.
+	 * 
+	 * @param lock the object lock
+	 * @return the deadline, or Long.MAX_VALUE if it never expires
+	 */
+	private long getDeadline(LibObjectPoolerLock lock) {
+
+		long deadline = Long.MAX_VALUE;
+
+		if (maxAge > 0) {
+			deadline = Math.min(deadline, lock.getCreated() + maxAge);
+		}
+
+		if (timeoutIdle > 0) {
+			deadline = Math.min(deadline, lock.getLastLocked() + timeoutIdle);
+		}
+
+		return deadline;
 	}
 
 	/**
-	 * Shutdown the pooler and destroy all objects.
+	 * Returns when an object must be checked next; before its deadline if it may
+	 * be held for too long by then.
+	 * 
+	 * @param lock     the object lock
+	 * @param now      the current time
+	 * @param deadline when it expires, or is checked again
+	 * @return the time to check it at, or Long.MAX_VALUE if never
 	 */
-	public synchronized void shutdown() {
+	private long nextCheck(LibObjectPoolerLock lock, long now, long deadline) {
 
-		// disallow new objects
-		allowCreateNew = false;
+		deadline = nextCheck(lock, now, deadline, maxLockTime);
+		deadline = nextCheck(lock, now, deadline, leakThreshold);
+		return deadline;
+	}
 
-		// stop the expire timer
-		expireTimer.cancel();
+	/**
+	 * Returns when an object must be checked next for one lock time limit.
+	 * 
+	 * @param lock     the object lock
+	 * @param now      the current time
+	 * @param deadline the check time so far
+	 * @param limit    the limit (ms), 0 if disabled
+	 * @return the time to check it at
+	 */
+	private static long nextCheck(LibObjectPoolerLock lock, long now, long deadline, long limit) {
 
-		// destroy all existing
-		destroyAll();
+		if (limit <= 0) {
+			return deadline;
+		}
+
+		// idle objects may be borrowed any time; check back within the limit
+		long at = lock.isLocked() ? (lock.getLastLocked() + limit) : (now + limit);
+		if (at <= now) {
+			at = now + limit;
+		}
+
+		return Math.min(deadline, at);
 	}
 
 	/**
-	 * Destroy expired objects; this is called on a scheduled interval.
+	 * Check a borrowed object against the max lock time and the leak detection
+	 * threshold, destroying or reclaiming it as configured.
+	 * 
+	 * @param entry the entry
+	 * @param now   the current time
+	 * @return true if the entry was removed from the pool
 	 */
-	public synchronized void destroyExpiredObjects() {
+	private boolean checkHeld(LibObjectPoolerEntry<T> entry, long now) {
 
-		// loop each object
-		for (T t : objectPool.keySet()) {
+		LibObjectPoolerLock lock = entry.lock;
+		long borrow = lock.getLockCount();
+		long held = now - lock.getLastLocked();
 
-			// get the lock
-			LibObjectPoolerLock lock = objectPool.get(t);
+		// report each borrow once
+		long threshold = leakThreshold;
+		boolean leaked = (threshold > 0 && held > threshold && entry.leakReported != borrow);
+		if (leaked) {
 
-			// calculate expiration times
-			long now = System.currentTimeMillis();
-			long idle = lock.getLastLocked() + timeoutIdle;
-			long expires = lock.getCreated() + maxAge;
-			boolean expired = (timeoutIdle > 0 && now > idle) || (maxAge > 0 && now > expires);
+			entry.leakReported = borrow;
+
+			fire(() -> {
+
+				metrics.onLeak();
+				listener.onLeak(entry.object, held, (leakStackSampling > 0) ? entry.borrowStack : null);
+			});
+		}
+
+		// destroyed no matter the leak action
+		long limit = maxLockTime;
+		if (limit > 0 && held > limit && evict(entry, true, LibObjectPoolerEvictReason.MAX_LOCK_TIME)) {
+
+			destroyLater(entry);
+			return true;
+		}
+
+		if (!leaked) {
+			return false;
+		}
+
+		switch (leakAction) {
+		case DESTROY:
+
+			if (evict(entry, true, LibObjectPoolerEvictReason.LEAKED)) {
+
+				destroyLater(entry);
+				return true;
+			}
+			return false;
+
+		case RECLAIM:
+
+			// the holder may still be using it, destroyed once released
+			LibObjectPoolerKey key = new LibObjectPoolerKey(entry.object);
+			reclaimed.put(key, entry);
+			if (evict(entry, true, LibObjectPoolerEvictReason.LEAKED)) {
+
+				releaseShared();
+				return true;
+			}
+
+			reclaimed.remove(key, entry);
+			return false;
+
+		default:
 
-			// check if max lock count reached
-			long lockCount = lock.getLockCount();
-			boolean hitMaxLocks = (maxLockCount > 0 && lockCount > maxLockCount);
+			return false;
+		}
+	}
+
+	/**
+	 * Add an entry to the expiry index, waking the expire check earlier if
+	 * needed.
+	 * 
+	 * @param entry the entry
+	 */
+	private void index(LibObjectPoolerEntry<T> entry) {
+
+		long deadline = nextCheck(entry.lock, System.currentTimeMillis(), getDeadline(entry.lock));
+		if (deadline == Long.MAX_VALUE) {
+			return;
+		}
+
+		expiry.add(entry, deadline);
+		if (deadline < expireAt) {
+			scheduleExpire(deadline);
+		}
+	}
+
+	/**
+	 * Rebuild the expiry index after the limits changed.
+	 */
+	private void reindex() {
+
+		expiry.clear();
+		for (LibObjectPoolerEntry<T> entry : objectPool.values()) {
+			index(entry);
+		}
+
+		rescheduleExpire();
+	}
+
+	/**
+	 * Schedule the expire check for the given time, unless one is already
+	 * scheduled earlier. Checks never sleep longer than the expire check
+	 * interval.
+	 * 
+	 * @param at the time to check at
+	 */
+	private synchronized void scheduleExpire(long at) {
+
+		// never restart checks for a pool which was shut down
+		if (shutdown) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		at = Math.min(at, now + expireCheckInterval);
+
+		// already waking up in time
+		if (expireTask != null && expireAt <= at) {
+			return;
+		}
+
+		if (expireTask != null) {
+			expireTask.cancel(false);
+		}
+
+		expireAt = at;
+		try {
 
-			// kill if locked for too long
-			long killAt = lock.getLastLocked() + maxLockTime;
-			boolean killable = (maxLockTime > 0 && killAt > now);
+			expireTask = scheduleExpireTask(at - now);
+		} catch (RejectedExecutionException e) {
 
-			// check if should be destroyed
-			if (expired || hitMaxLocks) {
+			// scheduler shut down
+			expireTask = null;
+			expireAt = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Schedule the expire check task.
+	 * 
+	 * @param delay the delay (ms)
+	 * @return the scheduled task
+	 */
+	private ScheduledFuture<?> scheduleExpireTask(long delay) {
+
+		return scheduler.schedule(() -> {
+
+			// allow the pass to schedule the next check
+			synchronized (this) {
+
+				expireTask = null;
+				expireAt = Long.MAX_VALUE;
+			}
+
+			try {
+
+				destroyExpiredObjects();
+			} catch (RuntimeException e) {
+
+				// a failing controller must not cancel future checks
+				scheduleExpire(expiry.nextDeadline());
+			}
 
-				// lock / destroy
-				destroy(t, killable);
+			// shut down during the pass
+			if (shutdown) {
+				return;
 			}
+
+			// idle objects are tested once per interval, not at every deadline
+			long time = System.currentTimeMillis();
+			if (testWhileIdle && (time - lastIdleTest) >= expireCheckInterval) {
+
+				lastIdleTest = time;
+				validateIdleObjects();
+			}
+		}, Math.max(0, delay), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Replace the scheduled expire check, after the interval or limits changed.
+	 */
+	private synchronized void rescheduleExpire() {
+
+		if (expireTask != null) {
+
+			expireTask.cancel(false);
+			expireTask = null;
+			expireAt = Long.MAX_VALUE;
 		}
+
+		scheduleExpire(expiry.nextDeadline());
 	}
 
 	/**
 	 * Create a new object instance.
 	 * 
-	 * @return The object.
+	 * A slot is reserved up front so the controller runs without holding any
+	 * pool lock.
+	 * 
+	 * @param ignoreBackoff true to create even while backing off, for trial creates
+	 *                      and warm up retries
+	 * @return The locked entry, or null if the pool is full or backing off.
 	 * @throws LibObjectPoolerBackoffException
 	 */
-	private synchronized T create() throws LibObjectPoolerException, LibObjectPoolerBackoffException {
+	private LibObjectPoolerEntry<T> create(boolean ignoreBackoff)
+			throws LibObjectPoolerException, LibObjectPoolerBackoffException {
+
+		if (!allowCreateNew) {
+			throw new LibObjectPoolerException("pool is not allowing new objects");
+		}
+
+		// fail fast while backing off
+		if (!ignoreBackoff && !backoff.isClosed()) {
+			return null;
+		}
 
 		// return null if the pool is full
-		if (getPoolSize() >= maxPoolSize) {
-			throw new LibObjectPoolerException("pool is at max capacity");
+		int reserved = poolCount.reserve(maxPoolSize);
+		if (reserved < 0) {
+			return null;
 		}
 
-		if (!allowCreateNew) {
-			throw new LibObjectPoolerException("pool is not allowing new objects");
+		// or the capacity shared with other pools is used up
+		LibObjectPoolerCapacity shared = capacity;
+		if (shared != null && !shared.reserve()) {
+
+			poolCount.release(reserved);
+			return null;
+		}
+
+		// or if too many are being created already
+		int createLimit = maxConcurrentCreates;
+		if (createLimit > 0 && !reserve(createCount, createLimit)) {
+
+			poolCount.release(reserved);
+			if (shared != null) {
+				shared.release();
+			}
+			return null;
 		}
 
+		// there may be room for the next waiter too
+		signalWaiter();
+
+		syncClock();
+
+		T t;
+		long started = System.nanoTime();
 		try {
 
 			// create a new object
-			T t = controller.onCreate();
+			t = controller.onCreate();
 
 			if (t == null) {
 				throw new IllegalArgumentException("controller returned null object");
 			}
+		} catch (Exception e) {
 
-			// reset backoff counter
-			backoffCount = 0;
+			// failed creates count too, a timing out controller is the slow case
+			createTimes.record(System.nanoTime() - started);
 
-			// add to pool
-			objectPool.put(t, new LibObjectPoolerLock());
+			poolCount.release(reserved);
+			if (shared != null) {
+				shared.release();
+			}
 
-			// return the object
-			return t;
-		} catch (Exception e) {
+			// open the breaker and schedule the trial create
+			LibObjectPoolerBackoffException ex = backoff.backoff(e);
+			long delay = backoff.onFailure(ex);
+			if (delay >= 0) {
+				scheduleRetry(delay);
+			}
+
+			fire(() -> {
+
+				metrics.onBackoff(e);
+				listener.onCreateFailed(e);
+			});
+
+			throw ex;
+		} finally {
+
+			if (createLimit > 0) {
+				createCount.decrementAndGet();
+			}
+
+			// a waiter may be able to create now
+			signalWaiter();
+		}
+
+		createTimes.record(System.nanoTime() - started);
+
+		// close the breaker
+		backoff.onSuccess();
+
+		// lock it for the caller before it is visible
+		LibObjectPoolerEntry<T> entry = new LibObjectPoolerEntry<T>(t, new LibObjectPoolerLock(),
+				createSequence.incrementAndGet());
+		entry.reserved = reserved;
+		lock(entry);
+
+		// add to pool; the store has room, capacity was reserved above
+		store.add(entry);
+		objectPool.put(new LibObjectPoolerKey(t), entry);
+		createOrder.put(entry.sequence, entry);
+		index(entry);
+
+		// only told once the object is in the pool
+		fire(() -> {
+
+			metrics.onCreate();
+			listener.onCreate(entry.object);
+		});
+
+		// the pool was shut down while creating
+		if (!allowCreateNew) {
+
+			destroy(entry.object, true);
+			throw new LibObjectPoolerException("pool is not allowing new objects");
+		}
+
+		// return the object
+		return entry;
+	}
+
+	/**
+	 * Increment a counter unless it has reached its limit.
+	 * 
+	 * @param counter the counter
+	 * @param limit   the limit
+	 * @return true if the counter was incremented
+	 */
+	private static boolean reserve(AtomicInteger counter, int limit) {
+
+		int count;
+		do {
+
+			count = counter.get();
+			if (count >= limit) {
+				return false;
+			}
+		} while (!counter.compareAndSet(count, count + 1));
+
+		return true;
+	}
+
+	/**
+	 * Lock the most recently released object cached by the calling thread.
+	 * 
+	 * @param now the time the borrower asked for it (ns)
+	 * @return the locked entry, or null if none could be locked
+	 */
+	private LibObjectPoolerEntry<T> getThreadLocal(long now) {
+
+		ArrayList<LibObjectPoolerEntry<T>> cached = threadObjects.get();
+
+		// newest first, dropping anything another thread took or destroyed
+		for (int x = cached.size() - 1; x >= 0; x--) {
+
+			LibObjectPoolerEntry<T> entry = cached.remove(x);
+			if (lock(entry, now)) {
+
+				return entry;
+			}
+		}
 
-			throw new LibObjectPoolerBackoffException((++backoffCount), 2.0, e);
+		return null;
+	}
+
+	/**
+	 * Cache a released object for the calling thread.
+	 * 
+	 * @param entry the released entry
+	 */
+	private void putThreadLocal(LibObjectPoolerEntry<T> entry) {
+
+		ArrayList<LibObjectPoolerEntry<T>> cached = threadObjects.get();
+
+		// drop the oldest when full
+		if (cached.size() >= threadCacheSize) {
+			cached.remove(0);
 		}
+
+		cached.add(entry);
 	}
 }
@@ -0,0 +1,130 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * LibObjectPooler // LibObjectPoolerBackoff
+ * 
+ * Circuit breaker guarding object creation. A failed create opens the breaker
+ * for the backoff delay; while open, creates fail fast. Once the delay has
+ * passed the pool runs a single trial create (half-open) which either closes
+ * the breaker or opens it again with a longer delay.
+ */
+final class LibObjectPoolerBackoff {
+
+	static final int stateClosed = 0;
+	static final int stateOpen = 1;
+	static final int stateHalfOpen = 2;
+
+	private static final AtomicIntegerFieldUpdater<LibObjectPoolerBackoff> stateUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(LibObjectPoolerBackoff.class, "state");
+
+	private final AtomicInteger backoffCount = new AtomicInteger();
+
+	private volatile int state = stateClosed;
+
+	private volatile long maxBackoffDelay = 30 * 1000;
+
+	private volatile Throwable backoffReason = null;
+
+	/**
+	 * Returns true if new objects may be created.
+	 * 
+	 * @return is closed
+	 */
+	boolean isClosed() {
+
+		return state == stateClosed;
+	}
+
+	/**
+	 * Returns the failure which last opened the breaker.
+	 * 
+	 * @return the backoff reason
+	 */
+	Throwable getBackoffReason() {
+
+		return backoffReason;
+	}
+
+	/**
+	 * Get the maximum delay between trial creates.
+	 * 
+	 * @return the maximum delay (ms)
+	 */
+	long getMaxBackoffDelay() {
+
+		return maxBackoffDelay;
+	}
+
+	/**
+	 * Set the maximum delay between trial creates.
+	 * 
+	 * @param maxBackoffDelay the maximum delay (ms)
+	 */
+	void setMaxBackoffDelay(long maxBackoffDelay) {
+
+		this.maxBackoffDelay = maxBackoffDelay;
+	}
+
+	/**
+	 * Record a successful create, closing the breaker.
+	 */
+	void onSuccess() {
+
+		backoffCount.set(0);
+		backoffReason = null;
+		state = stateClosed;
+	}
+
+	/**
+	 * Record a failed create, opening the breaker.
+	 * 
+	 * @param e the backoff raised by the failed create
+	 * @return the delay before the trial create, or -1 if the breaker was already
+	 *         open and a trial is already scheduled
+	 */
+	long onFailure(LibObjectPoolerBackoffException e) {
+
+		backoffReason = e.getBackoffReason();
+
+		// only the call which opens the breaker schedules the trial
+		if (!stateUpdater.compareAndSet(this, stateClosed, stateOpen)
+				&& !stateUpdater.compareAndSet(this, stateHalfOpen, stateOpen)) {
+
+			return -1;
+		}
+
+		return Math.min(e.getBackoffDelay(), maxBackoffDelay);
+	}
+
+	/**
+	 * Move an open breaker to half-open, claiming the trial create.
+	 * 
+	 * @return true if the caller should run the trial
+	 */
+	boolean tryHalfOpen() {
+
+		return stateUpdater.compareAndSet(this, stateOpen, stateHalfOpen);
+	}
+
+	/**
+	 * Close a half-open breaker without a trial.
+	 */
+	void abortTrial() {
+
+		stateUpdater.compareAndSet(this, stateHalfOpen, stateClosed);
+	}
+
+	/**
+	 * Build the exception for the next failed create.
+	 * 
+	 * @param e the failure
+	 * @return the backoff exception
+	 */
+	LibObjectPoolerBackoffException backoff(Exception e) {
+
+		return new LibObjectPoolerBackoffException(backoffCount.incrementAndGet(), 2.0, e);
+	}
+}
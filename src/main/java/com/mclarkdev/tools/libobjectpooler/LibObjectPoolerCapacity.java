@@ -0,0 +1,135 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibObjectPoolerCapacity
+ * 
+ * A limit on the number of objects shared by several pools; each pool
+ * reserves from it before creating an object, on top of its own max size.
+ */
+final class LibObjectPoolerCapacity {
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	private final Runnable onFreed;
+
+	private volatile int limit;
+
+	/**
+	 * Instantiate a new shared capacity.
+	 * 
+	 * @param limit   the most objects all pools may hold together
+	 * @param onFreed called when capacity is freed while at the limit
+	 */
+	LibObjectPoolerCapacity(int limit, Runnable onFreed) {
+
+		this.limit = limit;
+		this.onFreed = onFreed;
+	}
+
+	/**
+	 * Returns the number of objects held by all pools.
+	 * 
+	 * @return number of objects
+	 */
+	int getCount() {
+
+		return count.get();
+	}
+
+	/**
+	 * Returns the most objects all pools may hold together.
+	 * 
+	 * @return the limit
+	 */
+	int getLimit() {
+
+		return limit;
+	}
+
+	/**
+	 * Set the most objects all pools may hold together.
+	 * 
+	 * @param limit the limit
+	 */
+	void setLimit(int limit) {
+
+		int previous = this.limit;
+		this.limit = limit;
+
+		// waiters may be able to create now
+		if (limit > previous) {
+			onFreed.run();
+		}
+	}
+
+	/**
+	 * Returns true if no more objects may be created.
+	 * 
+	 * @return is full
+	 */
+	boolean isFull() {
+
+		return count.get() >= limit;
+	}
+
+	/**
+	 * Returns true if a pool is waiting for room while the limit is reached;
+	 * other pools then destroy released objects instead of keeping them idle.
+	 * 
+	 * @return is room wanted
+	 */
+	boolean isWanted() {
+
+		return waiting.get() > 0 && isFull();
+	}
+
+	/**
+	 * Record a borrower waiting for room.
+	 */
+	void startWaiting() {
+
+		waiting.incrementAndGet();
+	}
+
+	/**
+	 * Record a borrower no longer waiting for room.
+	 */
+	void stopWaiting() {
+
+		waiting.decrementAndGet();
+	}
+
+	/**
+	 * Reserve room for a new object.
+	 * 
+	 * @return false if the limit was reached
+	 */
+	boolean reserve() {
+
+		int current;
+		do {
+
+			current = count.get();
+			if (current >= limit) {
+				return false;
+			}
+		} while (!count.compareAndSet(current, current + 1));
+
+		return true;
+	}
+
+	/**
+	 * Give back the room of a destroyed object.
+	 */
+	void release() {
+
+		// only wake other pools if someone may be waiting for room
+		if (count.getAndDecrement() >= limit) {
+			onFreed.run();
+		}
+	}
+}
@@ -20,4 +20,16 @@ public interface LibObjectPoolerController<T> {
 	 * @param t the object to destroy
 	 */
 	public void onDestroy(T t);
+
+	/**
+	 * Called by the pooler to check an object is still usable, when the pool
+	 * tests objects on borrow, on return or while idle.
+	 * 
+	 * @param t the object to check
+	 * @return false if the object should be destroyed
+	 */
+	public default boolean onValidate(T t) {
+
+		return true;
+	}
 }
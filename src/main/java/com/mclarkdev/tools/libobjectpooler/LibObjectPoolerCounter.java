@@ -0,0 +1,88 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * LibObjectPooler // LibObjectPoolerCounter
+ * 
+ * A bounded counter split into cells, so threads on many cores reserving room
+ * in the pool do not all CAS the same word. The limit is divided between the
+ * cells; a thread reserves from its own cell first and takes room from the
+ * others once it is full, so the total never exceeds the limit.
+ */
+final class LibObjectPoolerCounter {
+
+	// one cell per cache line
+	private static final int pad = 16;
+
+	private final int cells;
+
+	private final AtomicIntegerArray counts;
+
+	/**
+	 * Instantiate a new counter.
+	 * 
+	 * @param cells the number of cells
+	 */
+	LibObjectPoolerCounter(int cells) {
+
+		if (cells < 1) {
+			throw new IllegalArgumentException("cell count must be positive");
+		}
+
+		this.cells = cells;
+		this.counts = new AtomicIntegerArray(cells * pad);
+	}
+
+	/**
+	 * Count one more, if the total stays within the limit.
+	 * 
+	 * @param limit the limit of the total
+	 * @return the cell to release it to, or -1 if the limit is reached
+	 */
+	int reserve(int limit) {
+
+		int home = LibObjectPoolerStripedStore.probe(cells);
+		for (int x = 0; x < cells; x++) {
+
+			// each cell holds its share of the limit
+			int cell = (home + x) % cells;
+			int share = (limit / cells) + ((cell < (limit % cells)) ? 1 : 0);
+
+			int count;
+			while ((count = counts.get(cell * pad)) < share) {
+
+				if (counts.compareAndSet(cell * pad, count, count + 1)) {
+					return cell;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Count one less.
+	 * 
+	 * @param cell the cell it was reserved from
+	 */
+	void release(int cell) {
+
+		counts.decrementAndGet(cell * pad);
+	}
+
+	/**
+	 * Returns the total; counts changing meanwhile may or may not be included.
+	 * 
+	 * @return the total
+	 */
+	int get() {
+
+		int total = 0;
+		for (int x = 0; x < cells; x++) {
+			total += counts.get(x * pad);
+		}
+
+		return total;
+	}
+}
@@ -0,0 +1,98 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * LibObjectPooler // LibObjectPoolerDequeStore
+ * 
+ * The default store; a lock-free LIFO queue of idle objects, so the most
+ * recently released object is reused first and unused ones age out.
+ * 
+ * Retired entries are not searched for; they are skipped when polled and
+ * dropped by the next purge.
+ * 
+ * Queuing a released object allocates a queue node; with thread affinity an
+ * object reclaimed by its thread stays queued, and is not queued again.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerDequeStore<T> implements LibObjectPoolerStore<T> {
+
+	private final ConcurrentLinkedDeque<LibObjectPoolerEntry<T>> idleObjects;
+
+	/**
+	 * Instantiate a new, unbounded, deque store.
+	 */
+	LibObjectPoolerDequeStore() {
+
+		idleObjects = new ConcurrentLinkedDeque<LibObjectPoolerEntry<T>>();
+	}
+
+	@Override
+	public int capacity() {
+
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public boolean add(LibObjectPoolerEntry<T> entry) {
+
+		return true;
+	}
+
+	@Override
+	public void remove(LibObjectPoolerEntry<T> entry) {
+	}
+
+	@Override
+	public void offer(LibObjectPoolerEntry<T> entry) {
+
+		// only queue it once, even if released again while queued
+		if (entry.markQueued()) {
+			idleObjects.offerFirst(entry);
+		}
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> poll() {
+
+		LibObjectPoolerEntry<T> entry;
+		while ((entry = idleObjects.pollFirst()) != null) {
+
+			// clear the mark before locking so a racing release can requeue it
+			entry.clearQueued();
+
+			// drop retired entries on the way
+			if (!entry.lock.isDestroyed()) {
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> oldest() {
+
+		// newest first, start from the oldest
+		Iterator<LibObjectPoolerEntry<T>> idle = idleObjects.descendingIterator();
+		while (idle.hasNext()) {
+
+			LibObjectPoolerEntry<T> entry = idle.next();
+
+			// skip objects reclaimed or destroyed while still queued
+			if (!entry.lock.isLocked() && !entry.lock.isDestroyed()) {
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public void purge() {
+
+		idleObjects.removeIf((entry) -> entry.lock.isDestroyed());
+	}
+}
@@ -0,0 +1,77 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * LibObjectPooler // LibObjectPoolerEntry
+ * 
+ * Binds a pooled object to its lock so the idle queue can hand out both without
+ * a map lookup.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerEntry<T> {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<LibObjectPoolerEntry> queuedUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(LibObjectPoolerEntry.class, "queued");
+
+	final T object;
+
+	final LibObjectPoolerLock lock;
+
+	final long sequence;
+
+	// the pool size counter cell it was reserved from
+	int reserved = 0;
+
+	private volatile int queued = 0;
+
+	// owned by the store
+	int slot = -1;
+	int stripe = 0;
+
+	// owned by the borrower
+	long lockedAt = 0;
+	Throwable borrowStack = null;
+
+	// owned by the expire check
+	long leakReported = -1;
+
+	// guarded by the expiry index
+	long deadline = Long.MAX_VALUE;
+	boolean indexed = false;
+	boolean unindexed = false;
+
+	/**
+	 * Instantiate a new pool entry.
+	 * 
+	 * @param object   the pooled object
+	 * @param lock     the lock guarding the object
+	 * @param sequence the creation order of the object
+	 */
+	LibObjectPoolerEntry(T object, LibObjectPoolerLock lock, long sequence) {
+
+		this.object = object;
+		this.lock = lock;
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Mark the entry as sitting in the shared idle queue.
+	 * 
+	 * @return true if the caller should queue the entry
+	 */
+	boolean markQueued() {
+
+		return queuedUpdater.compareAndSet(this, 0, 1);
+	}
+
+	/**
+	 * Clear the queued mark after taking the entry from the shared idle queue.
+	 */
+	void clearQueued() {
+
+		queued = 0;
+	}
+}
@@ -0,0 +1,45 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerEvictReason
+ * 
+ * Why the pool destroyed an object on its own.
+ */
+public enum LibObjectPoolerEvictReason {
+
+	/**
+	 * Idle for longer than the max idle time.
+	 */
+	IDLE,
+
+	/**
+	 * Older than the max age.
+	 */
+	MAX_AGE,
+
+	/**
+	 * Borrowed more often than the max lock count.
+	 */
+	MAX_LOCK_COUNT,
+
+	/**
+	 * Held for longer than the max lock time.
+	 */
+	MAX_LOCK_TIME,
+
+	/**
+	 * Held for longer than the leak detection threshold, when leaked objects are
+	 * reclaimed or destroyed.
+	 */
+	LEAKED,
+
+	/**
+	 * Failed validation by the controller.
+	 */
+	INVALID,
+
+	/**
+	 * Freed for another pool sharing the same capacity.
+	 */
+	CAPACITY
+}
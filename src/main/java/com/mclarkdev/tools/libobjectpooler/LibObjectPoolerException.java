@@ -15,4 +15,14 @@ public class LibObjectPoolerException extends RuntimeException {
 	public LibObjectPoolerException(String message) {
 		super(message);
 	}
+
+	/**
+	 * Instantiate a new pooler exception with a cause.
+	 * 
+	 * @param message the exception message
+	 * @param cause   the underlying failure
+	 */
+	public LibObjectPoolerException(String message, Throwable cause) {
+		super(message, cause);
+	}
 }
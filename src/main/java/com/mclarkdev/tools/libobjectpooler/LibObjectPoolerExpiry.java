@@ -0,0 +1,136 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.PriorityQueue;
+
+/**
+ * LibObjectPooler // LibObjectPoolerExpiry
+ * 
+ * Expiry index of pooled objects ordered by their next deadline.
+ * 
+ * Deadlines only ever move later while an object is in use, so an object is
+ * indexed with the deadline it had when it was added; once that passes it is
+ * checked again and either expires or is re-added with its new deadline.
+ * 
+ * Removed entries are only marked, and dropped once they reach the head or
+ * make up half of the index, so a removal does not search the queue.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerExpiry<T> {
+
+	private final PriorityQueue<LibObjectPoolerEntry<T>> deadlines;
+
+	// removed entries still in the queue
+	private int removed = 0;
+
+	/**
+	 * Instantiate a new expiry index.
+	 */
+	LibObjectPoolerExpiry() {
+
+		deadlines = new PriorityQueue<LibObjectPoolerEntry<T>>(16,
+				(a, b) -> Long.compare(a.deadline, b.deadline));
+	}
+
+	/**
+	 * Add an entry to the index, unless it is already indexed or was removed.
+	 * 
+	 * @param entry    the entry
+	 * @param deadline the time the entry is next due to be checked
+	 */
+	synchronized void add(LibObjectPoolerEntry<T> entry, long deadline) {
+
+		if (entry.indexed || entry.unindexed) {
+			return;
+		}
+
+		entry.indexed = true;
+		entry.deadline = deadline;
+		deadlines.add(entry);
+	}
+
+	/**
+	 * Remove an entry from the index for good; it is never indexed again.
+	 * 
+	 * @param entry the entry
+	 */
+	synchronized void remove(LibObjectPoolerEntry<T> entry) {
+
+		if (entry.unindexed) {
+			return;
+		}
+
+		entry.unindexed = true;
+		if (!entry.indexed) {
+			return;
+		}
+
+		// drop them all at once before they outnumber the live entries
+		removed++;
+		if (removed > (deadlines.size() / 2)) {
+
+			deadlines.removeIf(e -> e.unindexed);
+			removed = 0;
+		}
+	}
+
+	/**
+	 * Take the next entry whose deadline has passed.
+	 * 
+	 * @param now the current time
+	 * @return the due entry, or null if nothing is due
+	 */
+	synchronized LibObjectPoolerEntry<T> pollDue(long now) {
+
+		LibObjectPoolerEntry<T> entry = head();
+		if (entry == null || entry.deadline >= now) {
+			return null;
+		}
+
+		deadlines.poll();
+		entry.indexed = false;
+		return entry;
+	}
+
+	/**
+	 * Returns the earliest deadline in the index.
+	 * 
+	 * @return the next deadline, or Long.MAX_VALUE if the index is empty
+	 */
+	synchronized long nextDeadline() {
+
+		LibObjectPoolerEntry<T> entry = head();
+		return (entry == null) ? Long.MAX_VALUE : entry.deadline;
+	}
+
+	/**
+	 * Returns the earliest entry which was not removed, dropping removed ones
+	 * ahead of it.
+	 * 
+	 * @return the head entry, or null if the index is empty
+	 */
+	private LibObjectPoolerEntry<T> head() {
+
+		LibObjectPoolerEntry<T> entry;
+		while ((entry = deadlines.peek()) != null && entry.unindexed) {
+
+			deadlines.poll();
+			removed--;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Remove every entry from the index.
+	 */
+	synchronized void clear() {
+
+		for (LibObjectPoolerEntry<T> entry : deadlines) {
+			entry.indexed = false;
+		}
+
+		deadlines.clear();
+		removed = 0;
+	}
+}
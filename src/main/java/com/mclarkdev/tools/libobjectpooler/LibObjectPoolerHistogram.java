@@ -0,0 +1,161 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LibObjectPooler // LibObjectPoolerHistogram
+ * 
+ * A lock-free latency histogram with log-linear buckets, in the style of HDR
+ * histograms; every power of two is split into 32 linear buckets, so recorded
+ * values are kept to within about 3%. Recording is a bucket index calculation
+ * and an atomic increment, and allocates nothing.
+ * 
+ * Counts are striped by thread, so borrowers on many cores do not all contend
+ * on the same cells; each stripe is created the first time it is used.
+ * 
+ * Values are in nanoseconds; anything over about 18 minutes is counted in the
+ * last bucket, but still reported as the max.
+ */
+public final class LibObjectPoolerHistogram {
+
+	private static final int subBucketBits = 5;
+	private static final int subBuckets = 1 << subBucketBits;
+
+	// values up to 2^40 ns
+	private static final int maxValueBits = 40;
+	private static final long maxTracked = (1L << maxValueBits) - 1;
+
+	private static final int bucketCount = indexOf(maxTracked) + 1;
+
+	// the max of a stripe is kept in the cell after its counts
+	private static final int maxIndex = bucketCount;
+
+	private static final int stripeCount = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+
+	private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<AtomicLongArray>(
+			stripeCount);
+
+	/**
+	 * Instantiate a new, empty, histogram.
+	 */
+	LibObjectPoolerHistogram() {
+	}
+
+	/**
+	 * Record a value.
+	 * 
+	 * @param nanos the value (ns)
+	 */
+	void record(long nanos) {
+
+		if (nanos < 0) {
+			nanos = 0;
+		}
+
+		AtomicLongArray counts = stripe();
+		counts.getAndIncrement(indexOf(Math.min(nanos, maxTracked)));
+
+		// only contended while the max of the stripe is still climbing
+		long current;
+		while (nanos > (current = counts.get(maxIndex)) && !counts.compareAndSet(maxIndex, current, nanos)) {
+		}
+	}
+
+	/**
+	 * Returns the stripe of the calling thread, creating it if first used.
+	 * 
+	 * @return the counts of the stripe
+	 */
+	private AtomicLongArray stripe() {
+
+		int index = LibObjectPoolerStripedStore.probe(stripeCount);
+
+		AtomicLongArray counts = stripes.get(index);
+		if (counts == null) {
+
+			stripes.compareAndSet(index, null, new AtomicLongArray(bucketCount + 1));
+			counts = stripes.get(index);
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Clear all recorded values.
+	 */
+	public void reset() {
+
+		for (int s = 0; s < stripeCount; s++) {
+
+			AtomicLongArray counts = stripes.get(s);
+			if (counts == null) {
+				continue;
+			}
+
+			for (int x = 0; x <= maxIndex; x++) {
+				counts.set(x, 0);
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of the recorded values; values recorded while copying may or
+	 * may not be included.
+	 * 
+	 * @return the snapshot
+	 */
+	public LibObjectPoolerHistogramSnapshot getSnapshot() {
+
+		long[] copy = new long[bucketCount];
+		long max = 0;
+		for (int s = 0; s < stripeCount; s++) {
+
+			AtomicLongArray counts = stripes.get(s);
+			if (counts == null) {
+				continue;
+			}
+
+			for (int x = 0; x < bucketCount; x++) {
+				copy[x] += counts.get(x);
+			}
+			max = Math.max(max, counts.get(maxIndex));
+		}
+
+		return new LibObjectPoolerHistogramSnapshot(copy, max);
+	}
+
+	/**
+	 * Returns the bucket a value is counted in.
+	 * 
+	 * @param value the value
+	 * @return the bucket index
+	 */
+	static int indexOf(long value) {
+
+		// the first two powers of two are linear
+		if (value < (subBuckets << 1)) {
+			return (int) value;
+		}
+
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - subBucketBits;
+		return ((shift + 1) << subBucketBits) + (int) (value >>> shift) - subBuckets;
+	}
+
+	/**
+	 * Returns the highest value counted in a bucket.
+	 * 
+	 * @param index the bucket index
+	 * @return the highest value
+	 */
+	static long highestOf(int index) {
+
+		if (index < (subBuckets << 1)) {
+			return index;
+		}
+
+		int shift = (index >>> subBucketBits) - 1;
+		long sub = (index & (subBuckets - 1)) + subBuckets;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,135 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LibObjectPooler // LibObjectPoolerHistogramSnapshot
+ * 
+ * An immutable copy of a latency histogram. Percentiles are reported as the
+ * highest value of the bucket they fall in, capped at the max.
+ */
+public final class LibObjectPoolerHistogramSnapshot {
+
+	private final long[] counts;
+
+	private final long count;
+
+	private final long max;
+
+	/**
+	 * Instantiate a new snapshot.
+	 * 
+	 * @param counts the bucket counts
+	 * @param max    the highest recorded value
+	 */
+	LibObjectPoolerHistogramSnapshot(long[] counts, long max) {
+
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+
+		this.counts = counts;
+		this.count = total;
+		this.max = max;
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 * 
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count;
+	}
+
+	/**
+	 * Returns the highest recorded value.
+	 * 
+	 * @return the max (ns)
+	 */
+	public long getMax() {
+
+		return max;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of values fall.
+	 * 
+	 * @param percentile the percentile, 0 to 100
+	 * @return the value (ns), or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+
+		if (count == 0) {
+			return 0;
+		}
+
+		// the rank of the value, at least the first
+		double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+		long rank = Math.max(1, (long) Math.ceil(fraction * count));
+
+		long seen = 0;
+		for (int x = 0; x < counts.length; x++) {
+
+			seen += counts[x];
+			if (seen >= rank) {
+				return Math.min(LibObjectPoolerHistogram.highestOf(x), max);
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Returns the median.
+	 * 
+	 * @return the 50th percentile (ns)
+	 */
+	public long getP50() {
+
+		return getValueAtPercentile(50);
+	}
+
+	/**
+	 * Returns the 99th percentile.
+	 * 
+	 * @return the 99th percentile (ns)
+	 */
+	public long getP99() {
+
+		return getValueAtPercentile(99);
+	}
+
+	/**
+	 * Returns the 99.9th percentile.
+	 * 
+	 * @return the 99.9th percentile (ns)
+	 */
+	public long getP999() {
+
+		return getValueAtPercentile(99.9);
+	}
+
+	@Override
+	public String toString() {
+
+		return "count=" + count //
+				+ " p50=" + micros(getP50()) //
+				+ " p99=" + micros(getP99()) //
+				+ " p999=" + micros(getP999()) //
+				+ " max=" + micros(max) + " (us)";
+	}
+
+	/**
+	 * Format a value as microseconds.
+	 * 
+	 * @param nanos the value (ns)
+	 * @return the value (us)
+	 */
+	private static long micros(long nanos) {
+
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
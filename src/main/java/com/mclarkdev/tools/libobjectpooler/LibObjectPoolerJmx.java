@@ -0,0 +1,298 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * LibObjectPooler // LibObjectPoolerJmx
+ * 
+ * Publishes a pool over JMX, with no dependencies beyond the JDK. Counts the
+ * pool's events as its metrics, and reads the sizes from the pool when asked.
+ */
+public class LibObjectPoolerJmx implements LibObjectPoolerMetrics, LibObjectPoolerJmxMBean {
+
+	private final LibObjectPooler<?> pool;
+
+	private final ObjectName name;
+
+	private final LongAdder created = new LongAdder();
+
+	private final LongAdder destroyed = new LongAdder();
+
+	private final LongAdder[] evicted = new LongAdder[LibObjectPoolerEvictReason.values().length];
+
+	private final LongAdder backoffs = new LongAdder();
+
+	private final LongAdder timeouts = new LongAdder();
+
+	private final LongAdder leaks = new LongAdder();
+
+	/**
+	 * Instantiate new metrics for a pool; see register().
+	 * 
+	 * @param pool the pool
+	 * @param name the object name to register under
+	 */
+	private LibObjectPoolerJmx(LibObjectPooler<?> pool, ObjectName name) {
+
+		this.pool = pool;
+		this.name = name;
+
+		for (int x = 0; x < evicted.length; x++) {
+			evicted[x] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Register a pool with the platform MBean server, as
+	 * com.mclarkdev.tools.libobjectpooler:type=LibObjectPooler,name={name}. This
+	 * replaces the pool's metrics.
+	 * 
+	 * @param pool the pool
+	 * @param name the name of the pool
+	 * @return the registered metrics
+	 * @throws LibObjectPoolerException failed to register
+	 */
+	public static LibObjectPoolerJmx register(LibObjectPooler<?> pool, String name) {
+
+		try {
+
+			ObjectName objectName = new ObjectName(
+					"com.mclarkdev.tools.libobjectpooler:type=LibObjectPooler,name=" + ObjectName.quote(name));
+
+			LibObjectPoolerJmx jmx = new LibObjectPoolerJmx(pool, objectName);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(jmx, objectName);
+
+			pool.setMetrics(jmx);
+			return jmx;
+		} catch (JMException e) {
+
+			throw new LibObjectPoolerException("failed to register pool", e);
+		}
+	}
+
+	/**
+	 * Remove the pool from the platform MBean server, and stop counting its
+	 * events.
+	 */
+	public void unregister() {
+
+		pool.setMetrics(LibObjectPoolerMetrics.none);
+
+		try {
+
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+
+			// unregistered meanwhile
+		}
+	}
+
+	/**
+	 * Returns the object name the pool is registered under.
+	 * 
+	 * @return the object name
+	 */
+	public ObjectName getObjectName() {
+
+		return name;
+	}
+
+	@Override
+	public void onCreate() {
+
+		created.increment();
+	}
+
+	@Override
+	public void onDestroy() {
+
+		destroyed.increment();
+	}
+
+	@Override
+	public void onEvict(LibObjectPoolerEvictReason reason) {
+
+		evicted[reason.ordinal()].increment();
+	}
+
+	@Override
+	public void onBackoff(Throwable reason) {
+
+		backoffs.increment();
+	}
+
+	@Override
+	public void onTimeout() {
+
+		timeouts.increment();
+	}
+
+	@Override
+	public void onLeak() {
+
+		leaks.increment();
+	}
+
+	@Override
+	public int getPoolSize() {
+
+		return pool.getPoolSize();
+	}
+
+	@Override
+	public int getMaxPoolSize() {
+
+		return pool.getMaxPoolSize();
+	}
+
+	@Override
+	public int getActive() {
+
+		return pool.getNumLocked();
+	}
+
+	@Override
+	public int getIdle() {
+
+		return pool.getNumIdle();
+	}
+
+	@Override
+	public int getWaiting() {
+
+		return pool.getNumWaiting();
+	}
+
+	@Override
+	public boolean isBackingOff() {
+
+		return pool.isBackingOff();
+	}
+
+	@Override
+	public long getCreated() {
+
+		return created.sum();
+	}
+
+	@Override
+	public long getDestroyed() {
+
+		return destroyed.sum();
+	}
+
+	@Override
+	public long getEvictedIdle() {
+
+		return getEvicted(LibObjectPoolerEvictReason.IDLE);
+	}
+
+	@Override
+	public long getEvictedMaxAge() {
+
+		return getEvicted(LibObjectPoolerEvictReason.MAX_AGE);
+	}
+
+	@Override
+	public long getEvictedMaxLockCount() {
+
+		return getEvicted(LibObjectPoolerEvictReason.MAX_LOCK_COUNT);
+	}
+
+	@Override
+	public long getEvictedMaxLockTime() {
+
+		return getEvicted(LibObjectPoolerEvictReason.MAX_LOCK_TIME);
+	}
+
+	@Override
+	public long getEvictedLeaked() {
+
+		return getEvicted(LibObjectPoolerEvictReason.LEAKED);
+	}
+
+	@Override
+	public long getEvictedInvalid() {
+
+		return getEvicted(LibObjectPoolerEvictReason.INVALID);
+	}
+
+	@Override
+	public long getEvictedCapacity() {
+
+		return getEvicted(LibObjectPoolerEvictReason.CAPACITY);
+	}
+
+	@Override
+	public long getBackoffs() {
+
+		return backoffs.sum();
+	}
+
+	@Override
+	public long getTimeouts() {
+
+		return timeouts.sum();
+	}
+
+	@Override
+	public long getLeaks() {
+
+		return leaks.sum();
+	}
+
+	@Override
+	public long getWaitTimeP50() {
+
+		return micros(pool.getWaitTimes().getSnapshot().getP50());
+	}
+
+	@Override
+	public long getWaitTimeP99() {
+
+		return micros(pool.getWaitTimes().getSnapshot().getP99());
+	}
+
+	@Override
+	public long getWaitTimeMax() {
+
+		return micros(pool.getWaitTimes().getSnapshot().getMax());
+	}
+
+	@Override
+	public long getCreateTimeP99() {
+
+		return micros(pool.getCreateTimes().getSnapshot().getP99());
+	}
+
+	/**
+	 * Returns the number of objects evicted for a reason.
+	 * 
+	 * @param reason the reason
+	 * @return the number of objects evicted
+	 */
+	public long getEvicted(LibObjectPoolerEvictReason reason) {
+
+		return evicted[reason.ordinal()].sum();
+	}
+
+	/**
+	 * Convert a time to microseconds.
+	 * 
+	 * @param nanos the time (ns)
+	 * @return the time (us)
+	 */
+	private static long micros(long nanos) {
+
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
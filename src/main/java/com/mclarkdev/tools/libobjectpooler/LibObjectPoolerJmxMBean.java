@@ -0,0 +1,54 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerJmxMBean
+ * 
+ * The attributes a pool exposes over JMX; counters only ever increase, rates
+ * are left to the monitoring system. Times are in microseconds.
+ */
+public interface LibObjectPoolerJmxMBean {
+
+	public int getPoolSize();
+
+	public int getMaxPoolSize();
+
+	public int getActive();
+
+	public int getIdle();
+
+	public int getWaiting();
+
+	public boolean isBackingOff();
+
+	public long getCreated();
+
+	public long getDestroyed();
+
+	public long getEvictedIdle();
+
+	public long getEvictedMaxAge();
+
+	public long getEvictedMaxLockCount();
+
+	public long getEvictedMaxLockTime();
+
+	public long getEvictedLeaked();
+
+	public long getEvictedInvalid();
+
+	public long getEvictedCapacity();
+
+	public long getBackoffs();
+
+	public long getTimeouts();
+
+	public long getLeaks();
+
+	public long getWaitTimeP50();
+
+	public long getWaitTimeP99();
+
+	public long getWaitTimeMax();
+
+	public long getCreateTimeP99();
+}
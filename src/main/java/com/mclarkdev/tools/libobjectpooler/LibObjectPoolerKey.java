@@ -0,0 +1,78 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerKey
+ * 
+ * Identity key of a pooled object; the pool never calls the object's own
+ * equals() or hashCode(), so two distinct objects can never collide.
+ */
+final class LibObjectPoolerKey {
+
+	private static final ThreadLocal<LibObjectPoolerKey> probes = new ThreadLocal<LibObjectPoolerKey>() {
+
+		@Override
+		protected LibObjectPoolerKey initialValue() {
+
+			return new LibObjectPoolerKey(null);
+		}
+	};
+
+	private Object object;
+
+	private int hash;
+
+	/**
+	 * Instantiate a new key.
+	 * 
+	 * @param object the pooled object
+	 */
+	LibObjectPoolerKey(Object object) {
+
+		set(object);
+	}
+
+	/**
+	 * Returns the calling thread's reusable key for looking up an object; clear
+	 * it once the lookup is done.
+	 * 
+	 * @param object the object to look up
+	 * @return the lookup key
+	 */
+	static LibObjectPoolerKey probe(Object object) {
+
+		LibObjectPoolerKey key = probes.get();
+		key.set(object);
+		return key;
+	}
+
+	/**
+	 * Point the key at an object.
+	 * 
+	 * @param object the object
+	 */
+	private void set(Object object) {
+
+		this.object = object;
+		this.hash = System.identityHashCode(object);
+	}
+
+	/**
+	 * Release the object held by a lookup key.
+	 */
+	void clear() {
+
+		set(null);
+	}
+
+	@Override
+	public int hashCode() {
+
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		return (other instanceof LibObjectPoolerKey) && ((LibObjectPoolerKey) other).object == object;
+	}
+}
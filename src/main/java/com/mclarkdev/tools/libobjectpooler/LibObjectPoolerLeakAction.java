@@ -0,0 +1,28 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerLeakAction
+ * 
+ * What the pool does with an object held for longer than the leak detection
+ * threshold.
+ */
+public enum LibObjectPoolerLeakAction {
+
+	/**
+	 * Only report the leak; the object stays borrowed.
+	 */
+	REPORT,
+
+	/**
+	 * Report the leak and drop the object from the pool, freeing its capacity;
+	 * the holder keeps the object, which is destroyed with the controller once
+	 * released, or when the pool shuts down.
+	 */
+	RECLAIM,
+
+	/**
+	 * Report the leak, drop the object from the pool and destroy it with the
+	 * controller, even though it is still held.
+	 */
+	DESTROY
+}
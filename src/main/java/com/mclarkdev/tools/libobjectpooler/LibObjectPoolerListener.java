@@ -0,0 +1,91 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerListener
+ * 
+ * Receives the lifecycle events of pooled objects, for tracing. Methods are
+ * called on the thread causing the event, often on the borrow and release
+ * path, and must return quickly. Runtime exceptions they throw are caught and
+ * ignored, so a failing listener does not break the pool.
+ * 
+ * Pools without a listener use none(), whose empty methods the JIT inlines
+ * away.
+ * 
+ * @param <T> the object type to pool
+ */
+public interface LibObjectPoolerListener<T> {
+
+	/**
+	 * Returns the listener which ignores every event.
+	 * 
+	 * @param <T> the object type to pool
+	 * @return the empty listener
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> LibObjectPoolerListener<T> none() {
+
+		return (LibObjectPoolerListener<T>) LibObjectPoolerNoListener.instance;
+	}
+
+	/**
+	 * Called after an object was handed to a borrower.
+	 * 
+	 * @param t the object
+	 */
+	public default void onBorrow(T t) {
+	}
+
+	/**
+	 * Called when a borrower releases an object, before it is made available.
+	 * 
+	 * @param t the object
+	 */
+	public default void onReturn(T t) {
+	}
+
+	/**
+	 * Called after the controller created an object.
+	 * 
+	 * @param t the object
+	 */
+	public default void onCreate(T t) {
+	}
+
+	/**
+	 * Called when the controller failed to create an object.
+	 * 
+	 * @param e the failure
+	 */
+	public default void onCreateFailed(Throwable e) {
+	}
+
+	/**
+	 * Called when the pool destroys an object on its own, before the controller
+	 * destroys it.
+	 * 
+	 * @param t      the object
+	 * @param reason why the object was evicted
+	 */
+	public default void onEvict(T t, LibObjectPoolerEvictReason reason) {
+	}
+
+	/**
+	 * Called when an object is held for longer than the leak detection
+	 * threshold; once per borrow, before the leak action is taken.
+	 * 
+	 * @param t          the object
+	 * @param heldFor    how long it has been held (ms)
+	 * @param borrowedAt the stack of the borrower, or null if not sampled
+	 */
+	public default void onLeak(T t, long heldFor, Throwable borrowedAt) {
+	}
+
+	/**
+	 * Called when an object leaves the pool, for any reason, before the
+	 * controller destroys it.
+	 * 
+	 * @param t the object
+	 */
+	public default void onDestroy(T t) {
+	}
+}
@@ -1,15 +1,28 @@
 package com.mclarkdev.tools.libobjectpooler;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * LibObjectPooler // LibObjectPoolerLock
  */
 public class LibObjectPoolerLock {
 
-	private long created;
+	static final int stateIdle = 0;
+	static final int stateLocked = 1;
+	static final int stateDestroyed = 2;
+	static final int stateClaimed = 3;
+
+	private static final AtomicIntegerFieldUpdater<LibObjectPoolerLock> stateUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(LibObjectPoolerLock.class, "state");
+
+	private final long created;
+
+	private volatile int state = stateIdle;
+	private volatile long lastLocked = 0;
+	private volatile long lockCount = 0;
 
-	private boolean locked = false;
-	private long lastLocked = 0;
-	private long lockCount = 0;
+	// only read by the owner
+	private long previousLocked = 0;
 
 	/**
 	 * Instantiate a new Lock.
@@ -36,7 +49,17 @@ public class LibObjectPoolerLock {
 	 */
 	public boolean isLocked() {
 
-		return locked;
+		return state == stateLocked;
+	}
+
+	/**
+	 * Returns true if the lock has been retired by the pool.
+	 * 
+	 * @return is destroyed
+	 */
+	public boolean isDestroyed() {
+
+		return state == stateDestroyed;
 	}
 
 	/**
@@ -46,18 +69,28 @@ public class LibObjectPoolerLock {
 	 */
 	public boolean lock() {
 
-		synchronized (this) {
-
-			if (locked) {
-				return false;
-			}
+		return lock(System.currentTimeMillis());
+	}
 
-			locked = true;
-			lastLocked = System.currentTimeMillis();
-			lockCount++;
+	/**
+	 * Requests that the lock be locked, at a time the caller already read.
+	 * 
+	 * @param now the current time (ms)
+	 * @return locked successful
+	 */
+	boolean lock(long now) {
 
-			return true;
+		// claim the lock, only one caller can win
+		if (!stateUpdater.compareAndSet(this, stateIdle, stateLocked)) {
+			return false;
 		}
+
+		// only the owner updates the counters
+		previousLocked = lastLocked;
+		lastLocked = now;
+		lockCount++;
+
+		return true;
 	}
 
 	/**
@@ -65,7 +98,64 @@ public class LibObjectPoolerLock {
 	 */
 	public void unlock() {
 
-		locked = false;
+		tryUnlock();
+	}
+
+	/**
+	 * Requests that the lock be unlocked, telling if it was locked.
+	 * 
+	 * @return unlocked successful
+	 */
+	boolean tryUnlock() {
+
+		return stateUpdater.compareAndSet(this, stateLocked, stateIdle);
+	}
+
+	/**
+	 * Claims an idle lock for the pool itself, without counting it as a lock;
+	 * it can not be locked until unclaimed.
+	 * 
+	 * @return claimed successful
+	 */
+	boolean claim() {
+
+		return stateUpdater.compareAndSet(this, stateIdle, stateClaimed);
+	}
+
+	/**
+	 * Returns a claimed lock to idle.
+	 * 
+	 * @return unclaimed successful
+	 */
+	boolean unclaim() {
+
+		return stateUpdater.compareAndSet(this, stateClaimed, stateIdle);
+	}
+
+	/**
+	 * Requests that the lock be retired; a retired lock can never be locked again.
+	 * 
+	 * @param force retire the lock even if it is currently locked or claimed
+	 * @return the state the lock was retired from, or stateDestroyed if it was not
+	 *         retired
+	 */
+	int retire(boolean force) {
+
+		// claim an idle lock
+		if (stateUpdater.compareAndSet(this, stateIdle, stateDestroyed)) {
+			return stateIdle;
+		}
+
+		// optionally take a locked one
+		if (force && stateUpdater.compareAndSet(this, stateLocked, stateDestroyed)) {
+			return stateLocked;
+		}
+
+		if (force && stateUpdater.compareAndSet(this, stateClaimed, stateDestroyed)) {
+			return stateClaimed;
+		}
+
+		return stateDestroyed;
 	}
 
 	/**
@@ -78,6 +168,16 @@ public class LibObjectPoolerLock {
 		return lastLocked;
 	}
 
+	/**
+	 * Get the time the lock was locked before the current lock.
+	 * 
+	 * @return time previously locked
+	 */
+	long getPreviousLocked() {
+
+		return previousLocked;
+	}
+
 	/**
 	 * Returns the number of times the lock has been locked.
 	 * 
@@ -0,0 +1,60 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerMetrics
+ * 
+ * Receives counter events from a pool, for exporting to a metrics system.
+ * Methods are called on the thread causing the event, often on the borrow and
+ * release path, and must return quickly. Runtime exceptions they throw are
+ * caught and ignored.
+ */
+public interface LibObjectPoolerMetrics {
+
+	/**
+	 * Metrics which ignore every event; the default of a pool.
+	 */
+	static final LibObjectPoolerMetrics none = new LibObjectPoolerMetrics() {
+	};
+
+	/**
+	 * Called after the pool created an object.
+	 */
+	public default void onCreate() {
+	}
+
+	/**
+	 * Called when an object leaves the pool, for any reason; it is destroyed by
+	 * the controller right after.
+	 */
+	public default void onDestroy() {
+	}
+
+	/**
+	 * Called when the pool destroys an object on its own, after onDestroy().
+	 * 
+	 * @param reason why the object was evicted
+	 */
+	public default void onEvict(LibObjectPoolerEvictReason reason) {
+	}
+
+	/**
+	 * Called when a failed create makes the pool back off.
+	 * 
+	 * @param reason the create failure
+	 */
+	public default void onBackoff(Throwable reason) {
+	}
+
+	/**
+	 * Called when a waiting borrower times out.
+	 */
+	public default void onTimeout() {
+	}
+
+	/**
+	 * Called when an object is held for longer than the leak detection
+	 * threshold.
+	 */
+	public default void onLeak() {
+	}
+}
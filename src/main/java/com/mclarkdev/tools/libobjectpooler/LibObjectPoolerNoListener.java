@@ -0,0 +1,15 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerNoListener
+ * 
+ * The listener of pools without one; final and stateless, so calls on it are
+ * inlined to nothing.
+ */
+final class LibObjectPoolerNoListener implements LibObjectPoolerListener<Object> {
+
+	static final LibObjectPoolerNoListener instance = new LibObjectPoolerNoListener();
+
+	private LibObjectPoolerNoListener() {
+	}
+}
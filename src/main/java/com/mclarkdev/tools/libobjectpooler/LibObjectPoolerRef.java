@@ -0,0 +1,90 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * LibObjectPooler // LibObjectPoolerRef
+ * 
+ * A handle on a borrowed object. The handle points directly at the object's
+ * pool entry, so releasing or invalidating it needs no lookup; use it with
+ * try-with-resources to release the object when done.
+ * 
+ * A handle is only good for the borrow which returned it; once closed or
+ * invalidated, further calls do nothing.
+ * 
+ * @param <T> the object type to pool
+ */
+public final class LibObjectPoolerRef<T> implements AutoCloseable {
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<LibObjectPoolerRef> closedUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(LibObjectPoolerRef.class, "closed");
+
+	private final LibObjectPooler<T> pool;
+
+	private final LibObjectPoolerEntry<T> entry;
+
+	private final long generation;
+
+	private volatile int closed = 0;
+
+	/**
+	 * Instantiate a new handle on a locked entry.
+	 * 
+	 * @param pool  the owning pool
+	 * @param entry the locked entry
+	 */
+	LibObjectPoolerRef(LibObjectPooler<T> pool, LibObjectPoolerEntry<T> entry) {
+
+		this.pool = pool;
+		this.entry = entry;
+
+		// the lock count identifies this borrow
+		this.generation = entry.lock.getLockCount();
+	}
+
+	/**
+	 * Returns the borrowed object.
+	 * 
+	 * @return the borrowed object
+	 */
+	public T get() {
+
+		return entry.object;
+	}
+
+	/**
+	 * Returns true if the handle has been closed or invalidated.
+	 * 
+	 * @return is closed
+	 */
+	public boolean isClosed() {
+
+		return closed != 0;
+	}
+
+	/**
+	 * Release the object back to the pool.
+	 */
+	@Override
+	public void close() {
+
+		if (closedUpdater.compareAndSet(this, 0, 1)) {
+			pool.release(entry, generation);
+		}
+	}
+
+	/**
+	 * Destroy the object instead of returning it to the pool.
+	 * 
+	 * @return true if the object was destroyed
+	 */
+	public boolean invalidate() {
+
+		if (!closedUpdater.compareAndSet(this, 0, 1)) {
+			return false;
+		}
+
+		return pool.invalidate(entry, generation);
+	}
+}
@@ -0,0 +1,118 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibObjectPoolerScheduler
+ * 
+ * The maintenance scheduler shared by all pools which were not given their
+ * own; a couple of daemon threads serve every pool in the JVM.
+ * 
+ * Also the workers running controller calls off the borrowing thread, creating
+ * for asynchronous borrowers, validating and destroying, for pools which were
+ * not given an executor. Controllers may block, so these never run on the
+ * common fork join pool; a bounded set of daemon threads, stopped when idle,
+ * serves every pool.
+ */
+final class LibObjectPoolerScheduler {
+
+	private static final int sharedThreads = 2;
+
+	private static final int workerThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	private static final long workerKeepAlive = 60;
+
+	private static volatile ScheduledExecutorService shared = null;
+
+	private static volatile Executor workers = null;
+
+	private LibObjectPoolerScheduler() {
+	}
+
+	/**
+	 * Returns the shared scheduler, starting it on first use.
+	 * 
+	 * @return the shared scheduler
+	 */
+	static ScheduledExecutorService shared() {
+
+		ScheduledExecutorService scheduler = shared;
+		if (scheduler != null) {
+			return scheduler;
+		}
+
+		synchronized (LibObjectPoolerScheduler.class) {
+
+			if (shared == null) {
+
+				ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(sharedThreads,
+						threads("LibObjectPooler-"));
+
+				// drop cancelled timeouts right away
+				executor.setRemoveOnCancelPolicy(true);
+
+				shared = executor;
+			}
+
+			return shared;
+		}
+	}
+
+	/**
+	 * Returns the shared workers, starting them on first use.
+	 * 
+	 * @return the shared workers
+	 */
+	static Executor workers() {
+
+		Executor executor = workers;
+		if (executor != null) {
+			return executor;
+		}
+
+		synchronized (LibObjectPoolerScheduler.class) {
+
+			if (workers == null) {
+
+				// tasks queue up once every thread is busy, they are never rejected
+				ThreadPoolExecutor pool = new ThreadPoolExecutor(workerThreads, workerThreads, workerKeepAlive,
+						TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threads("LibObjectPooler-worker-"));
+				pool.allowCoreThreadTimeOut(true);
+
+				workers = pool;
+			}
+
+			return workers;
+		}
+	}
+
+	/**
+	 * Returns a factory of numbered daemon threads.
+	 * 
+	 * @param prefix the thread name prefix
+	 * @return the thread factory
+	 */
+	private static ThreadFactory threads(String prefix) {
+
+		return new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+
+				// never keep the JVM alive
+				Thread thread = new Thread(r, prefix + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
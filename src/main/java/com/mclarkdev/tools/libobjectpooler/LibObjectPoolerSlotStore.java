@@ -0,0 +1,185 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LibObjectPooler // LibObjectPoolerSlotStore
+ * 
+ * A fixed size store; every object owns a slot in a preallocated array, and
+ * two bitmaps track which slots are in use and which hold an idle object.
+ * Taking and releasing an object is a bit scan plus a CAS, and allocates
+ * nothing.
+ * 
+ * Lower slots are preferred, so the busy part of the pool stays dense and
+ * objects in the upper slots are left to expire.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerSlotStore<T> implements LibObjectPoolerStore<T> {
+
+	private final int capacity;
+
+	private final AtomicReferenceArray<LibObjectPoolerEntry<T>> slots;
+
+	private final AtomicLongArray used;
+
+	private final AtomicLongArray idle;
+
+	/**
+	 * Instantiate a new slot store.
+	 * 
+	 * @param capacity the number of slots
+	 */
+	LibObjectPoolerSlotStore(int capacity) {
+
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+
+		this.capacity = capacity;
+
+		int words = (capacity + 63) >>> 6;
+		slots = new AtomicReferenceArray<LibObjectPoolerEntry<T>>(capacity);
+		used = new AtomicLongArray(words);
+		idle = new AtomicLongArray(words);
+	}
+
+	@Override
+	public int capacity() {
+
+		return capacity;
+	}
+
+	@Override
+	public boolean add(LibObjectPoolerEntry<T> entry) {
+
+		// claim a free slot
+		for (int w = 0; w < used.length(); w++) {
+
+			long word;
+			while ((word = used.get(w)) != -1L) {
+
+				int slot = (w << 6) + Long.numberOfTrailingZeros(~word);
+				if (slot >= capacity) {
+					break;
+				}
+
+				if (used.compareAndSet(w, word, word | (1L << slot))) {
+
+					entry.slot = slot;
+					slots.set(slot, entry);
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public void remove(LibObjectPoolerEntry<T> entry) {
+
+		int slot = entry.slot;
+		if (slot < 0 || !slots.compareAndSet(slot, entry, null)) {
+			return;
+		}
+
+		clear(idle, slot);
+		clear(used, slot);
+	}
+
+	@Override
+	public void offer(LibObjectPoolerEntry<T> entry) {
+
+		int slot = entry.slot;
+		int w = slot >>> 6;
+		long bit = 1L << slot;
+
+		long word;
+		do {
+
+			// already available
+			word = idle.get(w);
+			if ((word & bit) != 0) {
+				return;
+			}
+		} while (!idle.compareAndSet(w, word, word | bit));
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> poll() {
+
+		for (int w = 0; w < idle.length(); w++) {
+
+			long word;
+			while ((word = idle.get(w)) != 0) {
+
+				long bit = Long.lowestOneBit(word);
+				if (!idle.compareAndSet(w, word, word & ~bit)) {
+					continue;
+				}
+
+				// null if the slot was freed meanwhile
+				LibObjectPoolerEntry<T> entry = slots.get((w << 6) + Long.numberOfTrailingZeros(bit));
+				if (entry != null) {
+					return entry;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> oldest() {
+
+		LibObjectPoolerEntry<T> oldest = null;
+
+		// slots keep no order; compare every idle one
+		for (int w = 0; w < idle.length(); w++) {
+
+			long word = idle.get(w);
+			while (word != 0) {
+
+				int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+
+				LibObjectPoolerEntry<T> entry = slots.get(slot);
+				if (entry == null || entry.lock.isLocked() || entry.lock.isDestroyed()) {
+					continue;
+				}
+
+				if (oldest == null || entry.lock.getLastLocked() < oldest.lock.getLastLocked()) {
+					oldest = entry;
+				}
+			}
+		}
+
+		return oldest;
+	}
+
+	@Override
+	public void purge() {
+
+		// retired entries free their slot right away
+	}
+
+	/**
+	 * Clear a bit in a bitmap.
+	 * 
+	 * @param bitmap the bitmap
+	 * @param slot   the bit to clear
+	 */
+	private static void clear(AtomicLongArray bitmap, int slot) {
+
+		int w = slot >>> 6;
+		long bit = 1L << slot;
+
+		long word;
+		do {
+
+			word = bitmap.get(w);
+		} while ((word & bit) != 0 && !bitmap.compareAndSet(w, word, word & ~bit));
+	}
+}
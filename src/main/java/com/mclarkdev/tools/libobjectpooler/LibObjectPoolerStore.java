@@ -0,0 +1,64 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+/**
+ * LibObjectPooler // LibObjectPoolerStore
+ * 
+ * Holds the idle objects of a pool. The store only tracks which objects are
+ * available; entries it hands out must still be locked by the pool, and any
+ * which can not be locked are simply skipped.
+ * 
+ * @param <T> the object type to pool
+ */
+interface LibObjectPoolerStore<T> {
+
+	/**
+	 * Returns the most objects the store can hold.
+	 * 
+	 * @return the capacity, or Integer.MAX_VALUE if unbounded
+	 */
+	int capacity();
+
+	/**
+	 * Add a newly created entry to the store; the pool never holds more objects
+	 * than the store's capacity.
+	 * 
+	 * @param entry the new entry
+	 * @return false if the store is full
+	 */
+	boolean add(LibObjectPoolerEntry<T> entry);
+
+	/**
+	 * Remove a retired entry from the store; it may also be dropped lazily, by
+	 * poll() or the next purge().
+	 * 
+	 * @param entry the retired entry
+	 */
+	void remove(LibObjectPoolerEntry<T> entry);
+
+	/**
+	 * Make a released entry available, unless it already is.
+	 * 
+	 * @param entry the released entry
+	 */
+	void offer(LibObjectPoolerEntry<T> entry);
+
+	/**
+	 * Take an available entry, most recently released first where the store
+	 * keeps an order.
+	 * 
+	 * @return an entry, or null if none is available
+	 */
+	LibObjectPoolerEntry<T> poll();
+
+	/**
+	 * Returns the unlocked entry which has been idle the longest.
+	 * 
+	 * @return the entry, or null if nothing is idle
+	 */
+	LibObjectPoolerEntry<T> oldest();
+
+	/**
+	 * Drop retired entries which are still held by the store.
+	 */
+	void purge();
+}
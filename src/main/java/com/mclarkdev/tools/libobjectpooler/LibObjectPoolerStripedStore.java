@@ -0,0 +1,156 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibObjectPoolerStripedStore
+ * 
+ * Splits a store into stripes so threads on many cores do not all contend on
+ * one free list. New objects are spread across the stripes in turn; a thread
+ * takes from its own stripe first, and steals from the others once it is
+ * empty. Objects move to the stripe of the thread which took them, so they are
+ * returned where they are borrowed; fixed size slots can not move, and stay in
+ * the stripe they were added to.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerStripedStore<T> implements LibObjectPoolerStore<T> {
+
+	private final LibObjectPoolerStore<T>[] stripes;
+
+	private final int capacity;
+
+	private final boolean fixedSize;
+
+	private final AtomicInteger nextStripe = new AtomicInteger();
+
+	/**
+	 * Instantiate a new striped store.
+	 * 
+	 * @param count     the number of stripes
+	 * @param fixedSize use fixed size slot stores instead of unbounded queues
+	 * @param capacity  the total capacity of fixed size stripes
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	LibObjectPoolerStripedStore(int count, boolean fixedSize, int capacity) {
+
+		if (count < 1) {
+			throw new IllegalArgumentException("stripe count must be positive");
+		}
+
+		stripes = new LibObjectPoolerStore[count];
+		for (int x = 0; x < count; x++) {
+
+			// spread the capacity as evenly as possible
+			stripes[x] = fixedSize //
+					? new LibObjectPoolerSlotStore<T>((capacity / count) + ((x < (capacity % count)) ? 1 : 0))
+					: new LibObjectPoolerDequeStore<T>();
+		}
+
+		this.capacity = fixedSize ? capacity : Integer.MAX_VALUE;
+		this.fixedSize = fixedSize;
+	}
+
+	/**
+	 * Returns the stripe of the calling thread.
+	 * 
+	 * @return the stripe index
+	 */
+	private int local() {
+
+		return probe(stripes.length);
+	}
+
+	/**
+	 * Returns the stripe of the calling thread, for any striped structure.
+	 * 
+	 * @param count the number of stripes
+	 * @return the stripe index
+	 */
+	static int probe(int count) {
+
+		// spread sequential thread ids across the stripes
+		long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return (int) ((h >>> 32) % count);
+	}
+
+	@Override
+	public int capacity() {
+
+		return capacity;
+	}
+
+	@Override
+	public boolean add(LibObjectPoolerEntry<T> entry) {
+
+		// spread new objects in turn, overflow into the next ones
+		int home = (nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stripes.length;
+		for (int x = 0; x < stripes.length; x++) {
+
+			int stripe = (home + x) % stripes.length;
+			if (stripes[stripe].add(entry)) {
+
+				entry.stripe = stripe;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public void remove(LibObjectPoolerEntry<T> entry) {
+
+		stripes[entry.stripe].remove(entry);
+	}
+
+	@Override
+	public void offer(LibObjectPoolerEntry<T> entry) {
+
+		stripes[entry.stripe].offer(entry);
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> poll() {
+
+		// own stripe first, then steal
+		int home = local();
+		for (int x = 0; x < stripes.length; x++) {
+
+			LibObjectPoolerEntry<T> entry = stripes[(home + x) % stripes.length].poll();
+			if (entry != null) {
+
+				// returned to the stripe of the borrower
+				if (!fixedSize) {
+					entry.stripe = home;
+				}
+				return entry;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public LibObjectPoolerEntry<T> oldest() {
+
+		LibObjectPoolerEntry<T> oldest = null;
+		for (LibObjectPoolerStore<T> stripe : stripes) {
+
+			LibObjectPoolerEntry<T> entry = stripe.oldest();
+			if (entry != null && (oldest == null || entry.lock.getLastLocked() < oldest.lock.getLastLocked())) {
+				oldest = entry;
+			}
+		}
+
+		return oldest;
+	}
+
+	@Override
+	public void purge() {
+
+		for (LibObjectPoolerStore<T> stripe : stripes) {
+			stripe.purge();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibObjectPoolerValidation
+ * 
+ * One idle validation sweep; hands the collected objects out to the parallel
+ * workers testing them.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerValidation<T> {
+
+	private final List<LibObjectPoolerEntry<T>> batch;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final AtomicInteger workers = new AtomicInteger();
+
+	/**
+	 * Instantiate a new sweep.
+	 * 
+	 * @param batch the entries to test
+	 */
+	LibObjectPoolerValidation(List<LibObjectPoolerEntry<T>> batch) {
+
+		this.batch = batch;
+	}
+
+	/**
+	 * Returns the number of entries to test.
+	 * 
+	 * @return the batch size
+	 */
+	int size() {
+
+		return batch.size();
+	}
+
+	/**
+	 * Start the given number of workers.
+	 * 
+	 * @param count number of workers
+	 */
+	void start(int count) {
+
+		workers.set(count);
+	}
+
+	/**
+	 * Take the next entry to test.
+	 * 
+	 * @return the entry, or null if none are left
+	 */
+	LibObjectPoolerEntry<T> next() {
+
+		int x = next.getAndIncrement();
+		return (x < batch.size()) ? batch.get(x) : null;
+	}
+
+	/**
+	 * Record a finished worker.
+	 * 
+	 * @return true if it was the last one
+	 */
+	boolean onWorkerDone() {
+
+		return workers.decrementAndGet() == 0;
+	}
+}
@@ -0,0 +1,173 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LibObjectPooler // LibObjectPoolerWaiter
+ * 
+ * A borrower in the pool's wait queue, either a parked thread or a pending
+ * future; released objects are handed to it directly.
+ * 
+ * @param <T> the object type to pool
+ */
+final class LibObjectPoolerWaiter<T> {
+
+	private static final int stateWaiting = 0;
+	private static final int stateDone = 1;
+	private static final int stateCancelled = 2;
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<LibObjectPoolerWaiter> stateUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(LibObjectPoolerWaiter.class, "state");
+
+	private final Thread thread;
+
+	private final CompletableFuture<T> future;
+
+	private volatile int state = stateWaiting;
+
+	private volatile LibObjectPoolerEntry<T> entry;
+
+	private volatile boolean busy = false;
+
+	/**
+	 * Instantiate a new waiter for the calling thread.
+	 */
+	LibObjectPoolerWaiter() {
+
+		thread = Thread.currentThread();
+		future = null;
+	}
+
+	/**
+	 * Instantiate a new waiter which completes a future.
+	 * 
+	 * @param future the future to complete
+	 */
+	LibObjectPoolerWaiter(CompletableFuture<T> future) {
+
+		this.thread = null;
+		this.future = future;
+	}
+
+	/**
+	 * Returns true if the waiter has not yet been served or cancelled.
+	 * 
+	 * @return is still waiting
+	 */
+	boolean isWaiting() {
+
+		return state == stateWaiting;
+	}
+
+	/**
+	 * Returns true if the waiter completes a future rather than a parked thread.
+	 * 
+	 * @return is asynchronous
+	 */
+	boolean isAsync() {
+
+		return future != null;
+	}
+
+	/**
+	 * Returns true if the waiting thread is currently trying to get an object on
+	 * its own, and so does not need to be signalled.
+	 * 
+	 * @return is busy
+	 */
+	boolean isBusy() {
+
+		return busy;
+	}
+
+	/**
+	 * Mark the waiting thread as trying to get an object on its own.
+	 * 
+	 * @param busy is busy
+	 */
+	void setBusy(boolean busy) {
+
+		this.busy = busy;
+	}
+
+	/**
+	 * Hand a locked entry to the waiter.
+	 * 
+	 * @param entry the locked entry
+	 * @return true if the waiter took ownership of the entry
+	 */
+	boolean offer(LibObjectPoolerEntry<T> entry) {
+
+		// publish before the state change so a cancelling waiter can see it
+		this.entry = entry;
+		if (!stateUpdater.compareAndSet(this, stateWaiting, stateDone)) {
+
+			this.entry = null;
+			return false;
+		}
+
+		if (future == null) {
+
+			LockSupport.unpark(thread);
+			return true;
+		}
+
+		// false if the future was cancelled first
+		return future.complete(entry.object);
+	}
+
+	/**
+	 * Stop waiting; fails if an entry has already been handed over.
+	 * 
+	 * @return true if the waiter was cancelled
+	 */
+	boolean cancel() {
+
+		return stateUpdater.compareAndSet(this, stateWaiting, stateCancelled);
+	}
+
+	/**
+	 * Returns the entry handed to this waiter.
+	 * 
+	 * @return the locked entry, or null if none was handed over
+	 */
+	LibObjectPoolerEntry<T> getEntry() {
+
+		return (state == stateDone) ? entry : null;
+	}
+
+	/**
+	 * Wake the waiting thread so it can retry on its own.
+	 */
+	void signal() {
+
+		if (future == null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Fail the waiter; a parked thread is woken to observe the failure itself.
+	 * 
+	 * @param e the failure
+	 * @return true if this call failed the future
+	 */
+	boolean fail(LibObjectPoolerException e) {
+
+		if (future == null) {
+
+			LockSupport.unpark(thread);
+			return false;
+		}
+
+		if (!cancel()) {
+			return false;
+		}
+
+		future.completeExceptionally(e);
+		return true;
+	}
+}
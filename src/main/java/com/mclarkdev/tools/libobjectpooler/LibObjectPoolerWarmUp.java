@@ -0,0 +1,135 @@
+package com.mclarkdev.tools.libobjectpooler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LibObjectPooler // LibObjectPoolerWarmUp
+ * 
+ * Tracks a parallel warm up of the pool; completes with the number of objects
+ * created once every requested object was either created or gave up.
+ */
+public class LibObjectPoolerWarmUp extends CompletableFuture<Integer> {
+
+	private final int target;
+
+	private final AtomicInteger pending;
+
+	private final AtomicInteger workers = new AtomicInteger();
+
+	private final AtomicInteger created = new AtomicInteger();
+
+	private final AtomicInteger failed = new AtomicInteger();
+
+	private volatile Throwable failure = null;
+
+	/**
+	 * Instantiate a new warm up.
+	 * 
+	 * @param target  the pool size to reach
+	 * @param missing the number of objects to create
+	 */
+	LibObjectPoolerWarmUp(int target, int missing) {
+
+		this.target = target;
+		this.pending = new AtomicInteger(missing);
+	}
+
+	/**
+	 * Returns the pool size the warm up is working towards.
+	 * 
+	 * @return the target pool size
+	 */
+	public int getTarget() {
+
+		return target;
+	}
+
+	/**
+	 * Returns the number of objects created so far.
+	 * 
+	 * @return number of objects created
+	 */
+	public int getCreated() {
+
+		return created.get();
+	}
+
+	/**
+	 * Returns the number of objects which could not be created.
+	 * 
+	 * @return number of objects failed
+	 */
+	public int getFailed() {
+
+		return failed.get();
+	}
+
+	/**
+	 * Returns the number of objects not yet attempted.
+	 * 
+	 * @return number of objects pending
+	 */
+	public int getPending() {
+
+		return Math.max(0, pending.get());
+	}
+
+	/**
+	 * Start the given number of workers.
+	 * 
+	 * @param count number of workers
+	 */
+	void start(int count) {
+
+		workers.set(count);
+	}
+
+	/**
+	 * Claim the next object to create.
+	 * 
+	 * @return false if nothing is left, or the warm up was cancelled
+	 */
+	boolean claim() {
+
+		return !isDone() && pending.getAndDecrement() > 0;
+	}
+
+	/**
+	 * Record a created object.
+	 */
+	void onCreated() {
+
+		created.incrementAndGet();
+	}
+
+	/**
+	 * Record an object which could not be created.
+	 * 
+	 * @param e the failure
+	 */
+	void onFailed(Throwable e) {
+
+		failure = e;
+		failed.incrementAndGet();
+	}
+
+	/**
+	 * Record a finished worker, completing the warm up after the last one.
+	 */
+	void onWorkerDone() {
+
+		if (workers.decrementAndGet() > 0) {
+			return;
+		}
+
+		if (failed.get() == 0) {
+
+			complete(created.get());
+			return;
+		}
+
+		String message = "failed to create " + failed.get() + " objects during warm up";
+		completeExceptionally(new LibObjectPoolerException(message, failure));
+	}
+}